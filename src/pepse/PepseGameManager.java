@@ -2,35 +2,46 @@ package pepse;
 
 // danogl imports
 import danogl.*;
-import danogl.collisions.Layer;
-import danogl.components.CoordinateSpace;
 import danogl.gui.*;
-import danogl.gui.rendering.*;
 import danogl.util.*;
 
 // pepse imports
 import static pepse.world.Constants.*;
-import pepse.world.*;
-import pepse.world.daynight.*;
-import pepse.world.trees.*;
+import pepse.util.AtlasImageSource;
+import pepse.util.ImageFileSource;
+import pepse.util.ImageSource;
+import pepse.util.InputRecorder;
+import pepse.util.KeyInput;
+import pepse.util.ObjectRegistry;
+import pepse.util.StartupTimer;
+import pepse.world.AvatarSprites;
+import pepse.world.SnapshotWriter;
+import pepse.world.WorldSnapshot;
 
 // Java standard imports
-import java.util.*;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 
 /**
  * The game manager for the Pepse game.
+ * The world itself lives in PepseWorld; the manager connects it to the window, its input and its images.
+ * The world is saved to a snapshot file every SNAPSHOT_AUTOSAVE_SECONDS and when SNAPSHOT_SAVE_KEY is pressed,
+ * and the next run resumes it from that file.
+ * With -Dpepse.record=<file> the game starts a new world instead, and writes the seed and the input of every
+ * frame to the file on exit, for pepse.headless.ReplayRunner to replay.
  */
 public class PepseGameManager extends GameManager {
-    private GameObject numeric;
-    private static Vector2 windowDimensions;
-    private Terrain terrain;
-    private int moveRightCounter;
-    private int moveLeftCounter;
-    private GameObject avatar;
-    private Camera camera;
-    private Flora flora;
+    private PepseWorld world;
+    private UserInputListener inputListener;
+    private int objectsPhase;
+    private final Path snapshotPath = Paths.get(System.getProperty("pepse.snapshot", SNAPSHOT_FILE));
+    private final SnapshotWriter snapshotWriter = new SnapshotWriter();
+    private float timeSinceSave;
+    private StartupTimer startup;
+    private InputRecorder recorder;
 
     /**
      * Initializes the game.
@@ -45,240 +56,139 @@ public class PepseGameManager extends GameManager {
                                UserInputListener inputListener,
                                WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
-        windowDimensions = windowController.getWindowDimensions();
-        createSky(windowController);
-        createGround(windowController);
-        createNight(windowController);
-        createSunAndHalo(windowController);
-        createAvatar(windowController, inputListener, imageReader);
-        createEnergyNumeric();
-        createTree();
-        createCloud(windowController);
-    }
-
-    /**
-     * Creates the sky GameObject.
-     * @param windowController The window controller.
-     */
-    private void createSky(WindowController windowController) {
-        GameObject sky = Sky.create(windowController.getWindowDimensions());
-        gameObjects().addGameObject(sky, Layer.BACKGROUND);
-    }
-
-    /**
-     * Creates the ground GameObject.
-     * @param windowController The window controller.
-     */
-    private void createGround(WindowController windowController) {
-        int terrainStart = -TERRAIN_ADJUSTER;
-        int terrainEnd = (int) windowController.getWindowDimensions().x() + TERRAIN_ADJUSTER;
-        terrain = new Terrain(windowController.getWindowDimensions(), GROUND_RANDOM_SEED);
-        List<List<Block>> ground = terrain.createInRange(terrainStart, terrainEnd);
-        for (List<Block> row : ground) {
-            for (GameObject block : row) {
-                gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
-            }
+        if (world != null) {
+            // a restarted game builds a new world, so the old one stops its producer thread
+            world.stop();
+        } else {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "world-stopper"));
         }
-    }
-
-    /**
-     * Creates the night GameObject.
-     * @param windowController The window controller.
-     */
-    private void createNight(WindowController windowController) {
-        gameObjects().addGameObject(Night.create(windowController.getWindowDimensions(),
-                                    NIGHT_CYCLE_LEN/2f), Layer.BACKGROUND);
-    }
-
-    /**
-     * Creates the sun GameObject.
-     * @param windowController The window controller.
-     */
-    private void createSunAndHalo(WindowController windowController) {
-        GameObject sun = Sun.create(windowController.getWindowDimensions(), NIGHT_CYCLE_LEN);
-        gameObjects().addGameObject(sun, Layer.BACKGROUND);
-        gameObjects().addGameObject(SunHalo.create(sun), Layer.BACKGROUND);
-    }
-
-    /**
-     * Creates the avatar GameObject.
-     * @param windowController The window controller.
-     * @param inputListener The input listener.
-     * @param imageReader The image reader.
-     */
-    private void createAvatar(WindowController windowController, UserInputListener inputListener,
-                              ImageReader imageReader) {
-        Vector2 avatarPos =
-                new Vector2(windowController.getWindowDimensions().x() / 2, AVATAR_GAME_ENTRY_HEIGHT);
-        GameObject avatar = new Avatar(avatarPos, inputListener, imageReader);
-        avatar.setTag("avatar");
-        camera = new Camera(avatar, new Vector2(0, 0), windowController.getWindowDimensions(),
-                windowController.getWindowDimensions());
-        setCamera(camera);
-        this.avatar = avatar;
-        gameObjects().addGameObject(avatar, Layer.DEFAULT);
-    }
-
-    /**
-     * Creates the energy numeric GameObject.
-     */
-    private void createEnergyNumeric() {
-        int avatarEnergy = Avatar.getEnergy();
-        TextRenderable textRenderable = new TextRenderable(avatarEnergy + "%");
-        numeric = new GameObject(Vector2.ZERO, Vector2.ONES.mult(NUMERIC_SIZE), textRenderable);
-        numeric.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-        gameObjects().addGameObject(numeric, Layer.UI);
-    }
-
-    /**
-     * Adds the tree parts to the game.
-     * @param tree The tree object.
-     */
-    private void addTreeParts(Tree tree) {
-        for (GameObject block : tree.getWoodBlocks()) {
-            gameObjects().addGameObject(block, Layer.STATIC_OBJECTS);
+        Vector2 windowDimensions = windowController.getWindowDimensions();
+        startup = new StartupTimer();
+        String recordingPath = System.getProperty("pepse.record");
+        // a recorded session starts from a new world, so its seed, window and input are all a replay needs
+        WorldSnapshot resume = recordingPath == null ? readSnapshot() : null;
+        startup.mark("snapshot");
+        KeyInput keyInput = inputListener::isKeyPressed;
+        if (recordingPath != null) {
+            recorder = new InputRecorder(keyInput, GROUND_RANDOM_SEED, windowDimensions);
+            keyInput = recorder;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> writeRecording(Paths.get(recordingPath)),
+                    "input-recording-writer"));
         }
-        // add leaf blocks to the game
-        for (ArrayList<Block> row : tree.getLeaveBlocks()) {
-            for (GameObject block : row) {
-                if (block != null)
-                    gameObjects().addGameObject(block, Layer.BACKGROUND);
+        // the avatar images come from one packed atlas, the other images are decoded one by one
+        ImageSource imageSource = new AtlasImageSource(AvatarSprites.imagePaths(),
+                Paths.get(System.getProperty("pepse.atlasCache", AVATAR_ATLAS_FILE)), new ImageFileSource());
+        world = new PepseWorld(windowDimensions, new ObjectRegistry() {
+            @Override
+            public void add(GameObject gameObject, int layer) {
+                gameObjects().addGameObject(gameObject, layer);
             }
-        }
-        // add fruit blocks to the game
-        for (ArrayList<Fruit> row : tree.getFruitBlocks()) {
-            for (Fruit fruit : row) {
-                if (fruit != null)
-                    gameObjects().addGameObject(fruit, Layer.STATIC_OBJECTS);
+
+            @Override
+            public boolean remove(GameObject gameObject, int layer) {
+                return gameObjects().removeGameObject(gameObject, layer);
             }
+        }, keyInput, imageSource, resume);
+        world.create(startup);
+        if (resume != null) {
+            System.out.println("resumed world " + world.getSeed() + " from " + snapshotPath);
         }
+        setCamera(world.getCamera());
+        this.inputListener = inputListener;
+        objectsPhase = world.getTelemetry().phase("objects");
     }
 
     /**
-     * Creates the tree object.
+     * Updates the game by checking for ball violations and renewing the game if necessary.
+     * @param deltaTime the time passed since the last update
      */
-    private void createTree() {
-        Flora flora = new Flora(terrain::groundHeightAt, GROUND_RANDOM_SEED);
-        this.flora = flora;
-        for (Tree tree : flora.createInRange(0, (int) windowDimensions.x())) {
-            // add wood blocks to the game
-            addTreeParts(tree);
+    @Override
+    public void update(float deltaTime) {
+        if (recorder != null) {
+            recorder.beginFrame(deltaTime);
         }
-    }
-
-    /**
-     * Deletes trees that are out of range.
-     * @param startingPoint The starting point.
-     * @param endingPoint The ending point.
-     */
-    private void deleteTree(int startingPoint, int endingPoint) {
-        flora.deleteOutOfRange(startingPoint, endingPoint, gameObjects()::removeGameObject);
-    }
-
-    /**
-     * Creates the cloud object.
-     * @param windowController The window controller.
-     */
-    private void createCloud(WindowController windowController) {
-        List<List<Block>> clouds = Cloud.create(windowController.getWindowDimensions(),
-                                    new Vector2(CLOUD_HEIGHT, CLOUD_HEIGHT));
-        for (List<Block> row : clouds) {
-            for (GameObject block : row) {
-                gameObjects().addGameObject(block, Layer.BACKGROUND);
-            }
+        long start = world.getTelemetry().start();
+        super.update(deltaTime);
+        world.getTelemetry().stop(objectsPhase, start);
+        world.update(deltaTime);
+        if (startup != null) {
+            startup.mark("firstFrame");
+            startup.print(System.out, STARTUP_BUDGET_MS);
+            startup = null;
         }
+        handleTelemetryKeys();
+        handleSnapshot(deltaTime);
     }
 
     /**
-     * Updates the energy numeric GameObject.
+     * Writes the input recorded so far.
+     * @param path The path of the recording.
      */
-    private void updateEnergy() {
-        gameObjects().removeGameObject(numeric, Layer.UI);
-        createEnergyNumeric();
-    }
-
-    /**
-     * Checks if the avatar is jumping and creates rain drops if it is.
-     */
-    private void dropRain() {
-        if (Avatar.isAvatarJumping()) {
-            List<List<Block>> rainDrops = Cloud.createRainDrops(gameObjects());
-            for (List<Block> row : rainDrops) {
-                for (GameObject block : row) {
-                    gameObjects().addGameObject(block, Layer.BACKGROUND);
-                }
-            }
+    private void writeRecording(Path path) {
+        try {
+            recorder.toRecording().write(path);
+            System.out.println("recorded " + recorder.getFrameCount() + " frames to " + path);
+        } catch (IOException e) {
+            System.err.println("cannot write input recording " + path + ": " + e.getMessage());
         }
     }
 
     /**
-     * Handles the avatar moving right.
-     * @param cameraRightCornerX The x-coordinate of the right corner of the camera.
+     * Reads the saved world, if there is one.
+     * @return The snapshot of the saved world, or null to start a new world.
      */
-    private void avatarMoveRightHandle( int cameraRightCornerX) {
-        moveRightCounter++;
-        if (moveRightCounter == MOVE_TARGET) {
-            terrain.add10BlockColumnsRight(gameObjects()::removeGameObject, gameObjects()::addGameObject);
-            deleteTree((int) camera.getTopLeftCorner().x(),
-                    (int) (camera.getTopLeftCorner().x() + camera.getDimensions().x()));
-            flora.addInRange(cameraRightCornerX,
-                    cameraRightCornerX + TERRAIN_ADDITION_RANGE, this::addTreeParts);
-            moveRightCounter = 0;
+    private WorldSnapshot readSnapshot() {
+        if (!Files.exists(snapshotPath)) {
+            return null;
         }
-    }
-
-    /**
-     * Handles the avatar moving left.
-     * @param cameraLeftCornerX The x-coordinate of the left corner of the camera.
-     */
-    private void avatarMoveLeftHandle(int cameraLeftCornerX) {
-        moveLeftCounter++;
-        if (moveLeftCounter == MOVE_TARGET) {
-            terrain.add2BlockColumnsLeft(gameObjects()::removeGameObject, gameObjects()::addGameObject);
-            deleteTree((int) camera.getTopLeftCorner().x(),
-                    (int) (camera.getTopLeftCorner().x() + camera.getDimensions().x()));
-            flora.addInRange(cameraLeftCornerX - TERRAIN_ADDITION_RANGE,
-                    cameraLeftCornerX, this::addTreeParts);
-            moveLeftCounter = 0;
+        try {
+            return WorldSnapshot.read(snapshotPath);
+        } catch (IOException e) {
+            System.err.println("starting a new world: " + e.getMessage());
+            return null;
         }
     }
 
     /**
-     * Checks if the avatar is moving, creates new terrain and flora if it is, and deletes trees
-     * that are out of range.
+     * Saves the world when its key is pressed or when the autosave time passed. The snapshot is taken
+     * during the frame and written in the background. A recorded session plays a new world, so it never
+     * replaces the saved one.
+     * @param deltaTime the time passed since the last update
      */
-    private void avatarMovementHandle() {
-        // get the x-coordinates of the camera space
-        int[] cameraSpace = {(int) camera.getTopLeftCorner().x(),
-                (int) camera.getTopLeftCorner().x() + (int) windowDimensions.x()};
-
-        // if the avatar is moving right, create new terrain and flora
-        if (Avatar.isAvatarMovingSideways().equals("right") && avatar.getVelocity().x() != 0) {
-            avatarMoveRightHandle(cameraSpace[1]);
-
-        // if the avatar is moving left, create new terrain and flora
-        } else if (Avatar.isAvatarMovingSideways().equals("left") && avatar.getVelocity().x() != 0) {
-            avatarMoveLeftHandle(cameraSpace[0]);
+    private void handleSnapshot(float deltaTime) {
+        if (recorder != null) {
+            return;
+        }
+        timeSinceSave += deltaTime;
+        if (inputListener.wasKeyPressedThisFrame(SNAPSHOT_SAVE_KEY) || timeSinceSave >= SNAPSHOT_AUTOSAVE_SECONDS) {
+            timeSinceSave = 0;
+            snapshotWriter.writeAsync(world.snapshot(), snapshotPath).exceptionally(e -> {
+                System.err.println(e.getMessage());
+                return null;
+            });
         }
     }
 
     /**
-     * Checks the game state.
+     * Stops the world and waits for the snapshots that are still being written, when the game exits.
      */
-    private void gameChecks() {
-        updateEnergy();
-        dropRain();
-        avatarMovementHandle();
+    private void shutdown() {
+        world.stop();
+        if (!snapshotWriter.shutdown(SNAPSHOT_SHUTDOWN_TIMEOUT_MS)) {
+            System.err.println("the last world snapshot was not written to " + snapshotPath);
+        }
     }
 
     /**
-     * Updates the game by checking for ball violations and renewing the game if necessary.
-     * @param deltaTime the time passed since the last update
+     * Turns the frame telemetry on and off, and dumps it, when their keys are pressed.
      */
-    @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        gameChecks();
+    private void handleTelemetryKeys() {
+        if (inputListener.wasKeyPressedThisFrame(TELEMETRY_TOGGLE_KEY)) {
+            world.getTelemetry().toggle();
+        }
+        if (inputListener.wasKeyPressedThisFrame(TELEMETRY_DUMP_KEY)) {
+            world.getTelemetry().dump(System.out);
+        }
     }
 
     /**
@@ -287,4 +197,4 @@ public class PepseGameManager extends GameManager {
     public static void main(String[] args) {
         new PepseGameManager().run();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,552 @@
+package pepse;
+
+// danogl imports
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+// pepse imports
+import static pepse.world.Constants.*;
+import pepse.util.ColorSupplier;
+import pepse.util.CountingObjectRegistry;
+import pepse.util.FixedTimestep;
+import pepse.util.FrameTelemetry;
+import pepse.util.ImageSource;
+import pepse.util.KeyInput;
+import pepse.util.ObjectRegistry;
+import pepse.util.StartupTimer;
+import pepse.world.*;
+import pepse.world.daynight.*;
+import pepse.world.trees.*;
+
+// Java standard imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntSupplier;
+
+/**
+ * The world of the Pepse game: the terrain, the trees, the sky and the avatar, and the logic that streams them
+ * around the camera. The world only talks to a window through the object registry, the key input and the image
+ * source it is given, so the same world runs in the game window and in the headless runner.
+ */
+public class PepseWorld {
+    private final Vector2 windowDimensions;
+    private final ObjectRegistry gameObjects;
+    private final KeyInput keyInput;
+    private final ImageSource imageSource;
+    private final int seed;
+    private final WorldSnapshot resume;
+    private final List<HudCounter> hudCounters = new ArrayList<>();
+    private final FrameTelemetry telemetry;
+    private final int layoutsPhase;
+    private final int rainPhase;
+    private final int respawnsPhase;
+    private final int movementPhase;
+    private final int visibilityPhase;
+    private Terrain terrain;
+    private final FixedTimestep simulation = new FixedTimestep(SIMULATION_RATE, MAX_SIMULATION_STEPS);
+    private float lastStreamedCameraX;
+    private GameObject avatar;
+    private Camera camera;
+    private Flora flora;
+    private WorldPregenerator pregenerator;
+    private Rain rain;
+    private CloudLayer cloudLayer;
+    private VisibilityManager visibility;
+    private boolean marginsPending;
+
+    /**
+     * Creates a new PepseWorld object.
+     * @param windowDimensions The dimensions of the window.
+     * @param gameObjects The registry the GameObjects of the world are added to.
+     * @param keyInput The input of the avatar.
+     * @param imageSource The source of the avatar images.
+     */
+    public PepseWorld(Vector2 windowDimensions, ObjectRegistry gameObjects, KeyInput keyInput,
+                      ImageSource imageSource) {
+        this(windowDimensions, gameObjects, keyInput, imageSource, null);
+    }
+
+    /**
+     * Creates a PepseWorld object, resuming a saved world if a snapshot is given.
+     * @param windowDimensions The dimensions of the window.
+     * @param gameObjects The registry the GameObjects of the world are added to.
+     * @param keyInput The input of the avatar.
+     * @param imageSource The source of the avatar images.
+     * @param resume The snapshot of the saved world, or null for a new world.
+     */
+    public PepseWorld(Vector2 windowDimensions, ObjectRegistry gameObjects, KeyInput keyInput,
+                      ImageSource imageSource, WorldSnapshot resume) {
+        this(windowDimensions, gameObjects, keyInput, imageSource,
+                resume == null ? GROUND_RANDOM_SEED : resume.getSeed(), resume);
+    }
+
+    /**
+     * Creates a new PepseWorld object with a given seed, for example to replay a recorded session.
+     * @param windowDimensions The dimensions of the window.
+     * @param gameObjects The registry the GameObjects of the world are added to.
+     * @param keyInput The input of the avatar.
+     * @param imageSource The source of the avatar images.
+     * @param seed The seed of the world.
+     */
+    public PepseWorld(Vector2 windowDimensions, ObjectRegistry gameObjects, KeyInput keyInput,
+                      ImageSource imageSource, int seed) {
+        this(windowDimensions, gameObjects, keyInput, imageSource, seed, null);
+    }
+
+    /**
+     * Creates a PepseWorld object.
+     * @param windowDimensions The dimensions of the window.
+     * @param gameObjects The registry the GameObjects of the world are added to.
+     * @param keyInput The input of the avatar.
+     * @param imageSource The source of the avatar images.
+     * @param seed The seed of the world.
+     * @param resume The snapshot of the saved world, or null for a new world.
+     */
+    private PepseWorld(Vector2 windowDimensions, ObjectRegistry gameObjects, KeyInput keyInput,
+                       ImageSource imageSource, int seed, WorldSnapshot resume) {
+        this.windowDimensions = windowDimensions;
+        this.seed = seed;
+        this.resume = resume;
+        CountingObjectRegistry countingGameObjects = new CountingObjectRegistry(gameObjects);
+        this.gameObjects = countingGameObjects;
+        this.keyInput = keyInput;
+        this.imageSource = imageSource;
+        this.telemetry = new FrameTelemetry(TELEMETRY_SAMPLES, Boolean.getBoolean("pepse.telemetry"));
+        telemetry.setObjectCounts(countingGameObjects);
+        layoutsPhase = telemetry.phase("layouts");
+        rainPhase = telemetry.phase("rain");
+        respawnsPhase = telemetry.phase("respawns");
+        movementPhase = telemetry.phase("movement");
+        visibilityPhase = telemetry.phase("visibility");
+    }
+
+    /**
+     * Creates every part of the world and adds it to the registry.
+     */
+    public void create() {
+        create(new StartupTimer());
+    }
+
+    /**
+     * Creates every part of the world and adds it to the registry, marking the stages of the startup.
+     * The avatar images are decoded on other threads while the ground and the trees are built. Only the ground
+     * in view is built before the first frame; the chunks beyond the edges of the view stream in with the first
+     * update.
+     * @param startup The timer of the startup.
+     */
+    public void create(StartupTimer startup) {
+        CompletableFuture<AvatarSprites> sprites = AvatarSprites.loadAsync(imageSource, ForkJoinPool.commonPool());
+        createSky();
+        createNight();
+        createSunAndHalo();
+        startup.mark("sky");
+        createGround();
+        startup.mark("terrain");
+        createTree();
+        startup.mark("trees");
+        createAvatar(sprites.join());
+        startup.mark("avatar");
+        createEnergyNumeric();
+        // a single driver sways the leaves of every tree in view
+        gameObjects.add(new WindDriver(flora, camera), Layer.BACKGROUND);
+        createCloud();
+        visibility = new VisibilityManager(camera, terrain, flora, VISIBILITY_ACTIVATION_MARGIN,
+                VISIBILITY_DORMANCY_MARGIN);
+        // the parts of the world that are not GameObjects of their own
+        telemetry.gauge("drop", rain::getLiveCount);
+        telemetry.gauge("cloud", cloudLayer::getCloudCount);
+        telemetry.gauge("tree", flora::getTreeCount);
+        telemetry.gauge("blockPoolInUse", Block.getPool()::getInUse);
+        telemetry.gauge("fruitPoolInUse", Fruit.getPool()::getInUse);
+        telemetry.gauge("fruitRespawns", Fruit.getRespawns()::getPending);
+        telemetry.gauge("renderables", ColorSupplier::getCachedRenderableCount);
+        telemetry.gauge("activeEntities", visibility::getActiveCount);
+        telemetry.gauge("dormantEntities", visibility::getDormantCount);
+        startup.mark("world");
+    }
+
+    /**
+     * Creates the sky GameObject.
+     */
+    private void createSky() {
+        GameObject sky = Sky.create(windowDimensions);
+        gameObjects.add(sky, Layer.BACKGROUND);
+    }
+
+    /**
+     * Creates the ground GameObject.
+     */
+    private void createGround() {
+        int viewLeft = initialViewLeft();
+        terrain = new Terrain(windowDimensions, seed);
+        List<List<Block>> ground;
+        if (resume != null && resume.coversChunks(terrain.getChunkColumns())) {
+            // the saved heights spare the noise of the loaded chunks, so the saved range is attached at once
+            float[] heights = resume.getHeights();
+            terrain.getHeightField().storeColumns(resume.getFirstColumn(), heights, heights.length);
+            int chunkWidth = terrain.getChunkColumns() * Block.SIZE;
+            ground = terrain.createInRange(resume.getFirstChunk() * chunkWidth,
+                    (resume.getLastChunk() + 1) * chunkWidth - 1);
+        } else {
+            // heights that do not match the saved chunks are left out, the noise gives them again
+            ground = terrain.createInRange(viewLeft, viewLeft + (int) windowDimensions.x());
+        }
+        // the chunks out of view that are still missing are attached by the first update
+        marginsPending = true;
+        for (List<Block> row : ground) {
+            for (GameObject block : row) {
+                gameObjects.add(block, Layer.STATIC_OBJECTS);
+            }
+        }
+        pregenerator = new WorldPregenerator(windowDimensions, seed, terrain.getChunkColumns());
+        pregenerator.start();
+    }
+
+    /**
+     * Returns the x-coordinate of the left edge of the view when the world is created, which is centered on
+     * the avatar.
+     * @return The x-coordinate of the left edge of the first view.
+     */
+    private int initialViewLeft() {
+        return resume == null ? 0 : (int) (resume.getAvatarX() - windowDimensions.x() / 2);
+    }
+
+    /**
+     * Creates the night GameObject.
+     */
+    private void createNight() {
+        gameObjects.add(Night.create(windowDimensions, NIGHT_CYCLE_LEN/2f), Layer.BACKGROUND);
+    }
+
+    /**
+     * Creates the sun GameObject.
+     */
+    private void createSunAndHalo() {
+        GameObject sun = Sun.create(windowDimensions, NIGHT_CYCLE_LEN);
+        gameObjects.add(sun, Layer.BACKGROUND);
+        gameObjects.add(SunHalo.create(sun), Layer.BACKGROUND);
+    }
+
+    /**
+     * Creates the avatar GameObject and the camera that follows it.
+     * @param sprites The images of the avatar.
+     */
+    private void createAvatar(AvatarSprites sprites) {
+        Vector2 avatarPos = new Vector2(windowDimensions.x() / 2, AVATAR_GAME_ENTRY_HEIGHT);
+        if (resume != null) {
+            avatarPos = new Vector2(resume.getAvatarX(), resume.getAvatarY());
+            Avatar.setEnergy(resume.getAvatarEnergy());
+        }
+        GameObject avatar = new Avatar(avatarPos, keyInput, sprites);
+        avatar.setTag("avatar");
+        camera = new Camera(avatar, new Vector2(0, 0), windowDimensions, windowDimensions);
+        this.avatar = avatar;
+        gameObjects.add(avatar, Layer.DEFAULT);
+    }
+
+    /**
+     * Creates the energy numeric GameObject.
+     */
+    private void createEnergyNumeric() {
+        addHudCounter("", "%", 0, (int) MAX_ENERGY, Avatar::getEnergy);
+    }
+
+    /**
+     * Adds a counter to the HUD, below the counters that were already added.
+     * @param prefix The text shown before the value.
+     * @param suffix The text shown after the value.
+     * @param minCached The smallest value whose text is cached.
+     * @param maxCached The largest value whose text is cached.
+     * @param value Supplies the value of the counter.
+     * @return The new counter.
+     */
+    public HudCounter addHudCounter(String prefix, String suffix, int minCached, int maxCached,
+                                    IntSupplier value) {
+        Vector2 topLeftCorner = new Vector2(0, hudCounters.size() * NUMERIC_SIZE);
+        HudCounter counter = new HudCounter(topLeftCorner, Vector2.ONES.mult(NUMERIC_SIZE), prefix, suffix,
+                minCached, maxCached, value);
+        hudCounters.add(counter);
+        gameObjects.add(counter, Layer.UI);
+        return counter;
+    }
+
+    /**
+     * Adds the tree parts to the game.
+     * @param tree The tree object.
+     */
+    private void addTreeParts(Tree tree) {
+        for (GameObject block : tree.getWoodBlocks()) {
+            gameObjects.add(block, Layer.STATIC_OBJECTS);
+        }
+        // add the baked canopy or the leaf blocks to the game
+        if (tree.getCanopy() != null) {
+            gameObjects.add(tree.getCanopy(), Layer.BACKGROUND);
+        }
+        for (ArrayList<Block> row : tree.getLeaveBlocks()) {
+            for (GameObject block : row) {
+                if (block != null)
+                    gameObjects.add(block, Layer.BACKGROUND);
+            }
+        }
+        // add fruit blocks to the game
+        for (ArrayList<Fruit> row : tree.getFruitBlocks()) {
+            for (Fruit fruit : row) {
+                if (fruit != null)
+                    gameObjects.add(fruit, Layer.STATIC_OBJECTS);
+            }
+        }
+    }
+
+    /**
+     * Creates the tree object.
+     */
+    private void createTree() {
+        Flora flora = new Flora(terrain::groundHeightAt, seed);
+        this.flora = flora;
+        if (resume != null) {
+            flora.restoreEatenFruits(resume.getTreeXs(), resume.getEatenFruitMasks());
+        }
+        int viewLeft = initialViewLeft();
+        for (Tree tree : flora.createInRange(viewLeft, viewLeft + (int) windowDimensions.x())) {
+            // add wood blocks to the game
+            addTreeParts(tree);
+        }
+    }
+
+    /**
+     * Deletes trees that are out of range.
+     * @param startingPoint The starting point.
+     * @param endingPoint The ending point.
+     */
+    private void deleteTree(int startingPoint, int endingPoint) {
+        flora.deleteOutOfRange(startingPoint, endingPoint, gameObjects::remove);
+    }
+
+    /**
+     * Creates the cloud layer and the rain that falls from it.
+     */
+    private void createCloud() {
+        cloudLayer = new CloudLayer(windowDimensions, CLOUD_COUNT, seed);
+        gameObjects.add(cloudLayer, Layer.BACKGROUND);
+        rain = new Rain(windowDimensions, RAIN_CAPACITY, seed);
+        gameObjects.add(rain, Layer.BACKGROUND);
+    }
+
+    /**
+     * Creates a shower of rain drops for every jump the avatar started since the last frame.
+     */
+    private void dropRain() {
+        while (Avatar.consumeJump()) {
+            // rain falls from the cloud that is closest to the avatar
+            int cloud = cloudLayer.closestCloud(avatar.getCenter().x() - camera.getTopLeftCorner().x());
+            rain.spawnShower(cloudLayer.getCloudX(cloud), cloudLayer.getCloudY(cloud),
+                    cloudLayer.getCloudSpeed(cloud));
+        }
+    }
+
+    /**
+     * Attaches the terrain chunks around the camera and detaches the ones that left it.
+     */
+    private void updateTerrain() {
+        int cameraLeftCornerX = (int) camera.getTopLeftCorner().x();
+        terrain.updateRange(cameraLeftCornerX - TERRAIN_ADJUSTER,
+                cameraLeftCornerX + (int) windowDimensions.x() + TERRAIN_ADJUSTER,
+                gameObjects::remove, gameObjects::add);
+    }
+
+    /**
+     * Hands the chunk layouts that the pregenerator finished to the terrain and the flora.
+     */
+    private void acceptPregeneratedLayouts() {
+        ChunkLayout layout = pregenerator.poll();
+        while (layout != null) {
+            terrain.acceptLayout(layout);
+            flora.acceptLayout(layout);
+            layout = pregenerator.poll();
+        }
+    }
+
+    /**
+     * Adds the trees that entered the camera range and deletes the ones that left it.
+     */
+    private void updateFlora() {
+        int cameraLeftCornerX = (int) camera.getTopLeftCorner().x();
+        int cameraRightCornerX = (int) (camera.getTopLeftCorner().x() + camera.getDimensions().x());
+        deleteTree(cameraLeftCornerX, cameraRightCornerX);
+        flora.addInRange(cameraLeftCornerX, cameraRightCornerX, this::addTreeParts);
+    }
+
+    /**
+     * Checks if the avatar is moving, asks for the chunks ahead of it, and streams the terrain and flora
+     * once the camera moved STREAM_DISTANCE since the last time they were streamed.
+     */
+    private void avatarMovementHandle() {
+        // get the x-coordinates of the camera space
+        int[] cameraSpace = {(int) camera.getTopLeftCorner().x(),
+                (int) camera.getTopLeftCorner().x() + (int) windowDimensions.x()};
+
+        // if the avatar is moving, ask for the chunks ahead of it
+        if (Avatar.isAvatarMovingSideways().equals("right") && avatar.getVelocity().x() != 0) {
+            pregenerator.requestAhead(cameraSpace[1] + TERRAIN_ADJUSTER, avatar.getVelocity().x());
+        } else if (Avatar.isAvatarMovingSideways().equals("left") && avatar.getVelocity().x() != 0) {
+            pregenerator.requestAhead(cameraSpace[0] - TERRAIN_ADJUSTER, avatar.getVelocity().x());
+        }
+
+        // streaming follows the distance the camera moved, not the number of frames
+        float cameraX = camera.getTopLeftCorner().x();
+        if (Math.abs(cameraX - lastStreamedCameraX) >= STREAM_DISTANCE) {
+            updateTerrain();
+            updateFlora();
+            lastStreamedCameraX = cameraX;
+        }
+    }
+
+    /**
+     * Checks the world state, once per frame after the GameObjects were updated.
+     * @param deltaTime The time passed since the last update.
+     */
+    public void update(float deltaTime) {
+        flora.releaseRemovedTrees();
+        if (marginsPending) {
+            marginsPending = false;
+            updateTerrain();
+            lastStreamedCameraX = camera.getTopLeftCorner().x();
+        }
+        long start = telemetry.start();
+        acceptPregeneratedLayouts();
+        telemetry.stop(layoutsPhase, start);
+        start = telemetry.start();
+        dropRain();
+        telemetry.stop(rainPhase, start);
+        start = telemetry.start();
+        // the fruit respawns run in fixed steps, so they keep the same pace at any frame rate
+        for (int steps = simulation.advance(deltaTime); steps > 0; steps--) {
+            Fruit.advanceRespawns(simulation.getStepTime());
+        }
+        telemetry.stop(respawnsPhase, start);
+        start = telemetry.start();
+        avatarMovementHandle();
+        telemetry.stop(movementPhase, start);
+        start = telemetry.start();
+        visibility.update();
+        telemetry.stop(visibilityPhase, start);
+    }
+
+    /**
+     * Captures the state of the world that a resume needs: the seed, the avatar, the attached chunks with
+     * their ground heights, and the trees that have eaten fruits.
+     * @return The snapshot of the world.
+     */
+    public WorldSnapshot snapshot() {
+        int firstChunk = Integer.MAX_VALUE;
+        int lastChunk = Integer.MIN_VALUE;
+        for (TerrainChunk chunk : terrain.getActiveChunks()) {
+            firstChunk = Math.min(firstChunk, chunk.getIndex());
+            lastChunk = Math.max(lastChunk, chunk.getIndex());
+        }
+        int chunkColumns = terrain.getChunkColumns();
+        int firstColumn = firstChunk * chunkColumns;
+        float[] heights = new float[(lastChunk - firstChunk + 1) * chunkColumns];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = terrain.getHeightField().heightAtColumn(firstColumn + i);
+        }
+        // trees whose fruits are all there are rebuilt from the seed alone
+        int treeCount = 0;
+        int[] treeXs = new int[flora.getTreeCount()];
+        long[] eatenFruitMasks = new long[treeXs.length];
+        for (Tree tree : flora.getTrees()) {
+            long mask = tree.getEatenFruitMask();
+            if (mask != 0) {
+                treeXs[treeCount] = tree.getTrunkX();
+                eatenFruitMasks[treeCount++] = mask;
+            }
+        }
+        return new WorldSnapshot(seed, avatar.getTopLeftCorner().x(), avatar.getTopLeftCorner().y(),
+                Avatar.getExactEnergy(), firstChunk, lastChunk, firstColumn, heights,
+                Arrays.copyOf(treeXs, treeCount), Arrays.copyOf(eatenFruitMasks, treeCount));
+    }
+
+    /**
+     * Gets the seed of the world.
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Stops the background work of the world.
+     */
+    public void stop() {
+        pregenerator.stop();
+    }
+
+    /**
+     * Gets the frame telemetry of the world.
+     * @return The telemetry.
+     */
+    public FrameTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    /**
+     * Gets the avatar.
+     * @return The avatar.
+     */
+    public GameObject getAvatar() {
+        return avatar;
+    }
+
+    /**
+     * Gets the camera that follows the avatar.
+     * @return The camera.
+     */
+    public Camera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Gets the terrain.
+     * @return The terrain.
+     */
+    public Terrain getTerrain() {
+        return terrain;
+    }
+
+    /**
+     * Gets the flora.
+     * @return The flora.
+     */
+    public Flora getFlora() {
+        return flora;
+    }
+
+    /**
+     * Gets the visibility manager.
+     * @return The visibility manager.
+     */
+    public VisibilityManager getVisibility() {
+        return visibility;
+    }
+
+    /**
+     * Gets the rain.
+     * @return The rain.
+     */
+    public Rain getRain() {
+        return rain;
+    }
+
+    /**
+     * Gets the cloud layer.
+     * @return The cloud layer.
+     */
+    public CloudLayer getCloudLayer() {
+        return cloudLayer;
+    }
+}
@@ -0,0 +1,41 @@
+package pepse.bench;
+
+import pepse.util.AllocationCounter;
+
+/**
+ * Helpers shared by the benchmarks.
+ */
+public final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * An operation under measurement. It returns a value that goes into a checksum, so the JIT cannot drop it.
+     */
+    public interface Operation {
+        long run(int iteration);
+    }
+
+    /**
+     * Warms an operation up, then measures its time and allocation per call and prints one line.
+     * @param name The name of the operation.
+     * @param operation The operation.
+     * @param warmupRounds The number of calls before the measurement.
+     * @param measuredRounds The number of measured calls.
+     */
+    public static void measure(String name, Operation operation, int warmupRounds, int measuredRounds) {
+        long checksum = 0;
+        for (int i = 0; i < warmupRounds; i++) {
+            checksum += operation.run(i);
+        }
+        long allocatedBefore = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRounds; i++) {
+            checksum += operation.run(warmupRounds + i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = AllocationCounter.allocatedBytes() - allocatedBefore;
+        System.out.printf("%-30s %12.1f ns/op %12.1f B/op (checksum %d)%n",
+                name, (double) elapsed / measuredRounds, (double) allocated / measuredRounds, checksum);
+    }
+}
@@ -0,0 +1,71 @@
+package pepse.bench;
+
+import pepse.world.Block;
+import pepse.world.trees.Flora;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Compares the old per-pixel java.util.Random tree placement with the counter-based per-column placement
+ * of Flora. Both decide tree presence for the same window-wide range of x-coordinates.
+ * The two do not place the same number of trees: the legacy chance is per pixel, so it puts a tree in most
+ * columns, while Flora puts one in ten columns. The checksums differ for that reason, and the comparison is
+ * of the cost of deciding a range, not of the worlds they make.
+ * Usage: java pepse.bench.TreePlacementBenchmark [windowWidth] [seed]
+ */
+public class TreePlacementBenchmark {
+    // the per-pixel chance of the streamed ground before the per-column placement
+    private static final double LEGACY_TREE_CHANCE = 0.05;
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+    private static final int DEFAULT_SEED = 1234;
+
+    /**
+     * Decides tree presence for every pixel of a range the way Flora used to.
+     * @param minX The minimum x-coordinate.
+     * @param maxX The maximum x-coordinate.
+     * @param seed The seed of the world.
+     * @return The number of trees in the range.
+     */
+    private static int legacyPlacement(int minX, int maxX, int seed) {
+        int trees = 0;
+        for (int x = minX; x <= maxX; x++) {
+            Random random = new Random(Objects.hash(x, seed));
+            if (random.nextDouble() < LEGACY_TREE_CHANCE) {
+                trees++;
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Decides tree presence for every block column of a range the way Flora does now.
+     * @param minX The minimum x-coordinate.
+     * @param maxX The maximum x-coordinate.
+     * @param seed The seed of the world.
+     * @return The number of trees in the range.
+     */
+    private static int columnPlacement(int minX, int maxX, int seed) {
+        int trees = 0;
+        for (int column = Math.floorDiv(minX, Block.SIZE); column <= Math.floorDiv(maxX, Block.SIZE); column++) {
+            if (Flora.hasTreeAt(column, seed)) {
+                trees++;
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args The window width and the seed, both optional.
+     */
+    public static void main(String[] args) {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int seed = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SEED;
+        System.out.println("tree placement, window width " + width + ", seed " + seed);
+        BenchmarkSupport.measure("legacy", i -> legacyPlacement(i * width, i * width + width, seed),
+                WARMUP_ROUNDS, MEASURED_ROUNDS);
+        BenchmarkSupport.measure("column", i -> columnPlacement(i * width, i * width + width, seed),
+                WARMUP_ROUNDS, MEASURED_ROUNDS);
+    }
+}
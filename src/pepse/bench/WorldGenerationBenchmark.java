@@ -0,0 +1,158 @@
+package pepse.bench;
+
+import static pepse.world.Constants.*;
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.daynight.Rain;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Tree;
+import pepse.world.trees.TreeBlueprint;
+
+/**
+ * Measures the hot paths of world generation: noise, ground heights, terrain and flora streaming, tree
+ * construction and rain. Every case runs for every combination of window width and seed, and reports the time
+ * and the bytes allocated per operation. The streaming cases move a window-wide range one window to the right
+ * per operation, the way the camera does, so they measure generation of new ground rather than cache hits.
+ * Usage: java pepse.bench.WorldGenerationBenchmark [widths] [seeds] [case]
+ * for example: java pepse.bench.WorldGenerationBenchmark 800,1920 1234,42 terrain
+ */
+public class WorldGenerationBenchmark {
+    private static final int WARMUP_ROUNDS = 2_000;
+    private static final int MEASURED_ROUNDS = 10_000;
+    private static final float WINDOW_HEIGHT = 720;
+    private static final float FRAME_TIME = 1 / 60f;
+    private static final String DEFAULT_WIDTHS = "800,1024,1920";
+    private static final String DEFAULT_SEEDS = "1234";
+
+    /**
+     * Runs every case that matches the filter for a single window width and seed.
+     * @param width The width of the window.
+     * @param seed The seed of the world.
+     * @param filter Only cases whose name contains the filter run.
+     */
+    private static void runCases(int width, int seed, String filter) {
+        Vector2 windowDimensions = new Vector2(width, WINDOW_HEIGHT);
+        int columns = width / Block.SIZE;
+        System.out.println("window width " + width + ", seed " + seed);
+
+        if ("noise.scalar".contains(filter)) {
+            NoiseGenerator noise = new NoiseGenerator(seed, (int) (WINDOW_HEIGHT * HEIGHT_DIVISION_FACTOR));
+            BenchmarkSupport.measure("noise.scalar", i -> {
+                long sum = 0;
+                for (int c = 0; c < columns; c++) {
+                    sum += (long) noise.noise((i * columns + c) * Block.SIZE, Block.SIZE * NOISE_FACTOR);
+                }
+                return sum;
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("noise.batch".contains(filter)) {
+            NoiseGenerator noise = new NoiseGenerator(seed, (int) (WINDOW_HEIGHT * HEIGHT_DIVISION_FACTOR));
+            double[] out = new double[columns];
+            BenchmarkSupport.measure("noise.batch", i -> {
+                noise.noise((double) i * columns * Block.SIZE, Block.SIZE, columns,
+                        Block.SIZE * NOISE_FACTOR, out, 0);
+                return (long) out[columns - 1];
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("terrain.groundHeightAt".contains(filter)) {
+            Terrain terrain = new Terrain(windowDimensions, seed);
+            BenchmarkSupport.measure("terrain.groundHeightAt", i -> {
+                // every round reads new columns, so the height cache misses and the noise is evaluated
+                long sum = 0;
+                for (int c = 0; c < columns; c++) {
+                    sum += (long) terrain.groundHeightAt((i * columns + c) * Block.SIZE);
+                }
+                return sum;
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("terrain.groundHeightAt.cached".contains(filter)) {
+            Terrain terrain = new Terrain(windowDimensions, seed);
+            BenchmarkSupport.measure("terrain.groundHeightAt.cached", i -> {
+                // the same columns every round, so every read after the first round hits the height cache
+                long sum = 0;
+                for (int c = 0; c < columns; c++) {
+                    sum += (long) terrain.groundHeightAt(c * Block.SIZE);
+                }
+                return sum;
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("terrain.createInRange".contains(filter)) {
+            Terrain terrain = new Terrain(windowDimensions, seed);
+            BenchmarkSupport.measure("terrain.createInRange", i -> {
+                // attach the next window of ground and detach the previous one into the chunk cache
+                terrain.updateRange(i * width, i * width + width, (block, layer) -> true, (block, layer) -> { });
+                return terrain.getChunksGenerated();
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("flora.stream".contains(filter)) {
+            Terrain terrain = new Terrain(windowDimensions, seed);
+            Flora flora = new Flora(terrain::groundHeightAt, seed);
+            BenchmarkSupport.measure("flora.stream", i -> {
+                // the frame of the game: the trees of the last frame go back to the pools, then the camera moves
+                flora.releaseRemovedTrees();
+                flora.deleteOutOfRange(i * width, i * width + width, (gameObject, layer) -> true);
+                flora.addInRange(i * width, i * width + width, tree -> { });
+                return flora.getTreeCount();
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("flora.createInRange".contains(filter)) {
+            Terrain terrain = new Terrain(windowDimensions, seed);
+            Flora flora = new Flora(terrain::groundHeightAt, seed);
+            BenchmarkSupport.measure("flora.createInRange", i -> {
+                flora.releaseRemovedTrees();
+                long created = flora.createInRange(i * width, i * width + width).size();
+                flora.deleteOutOfRange(i * width, i * width + width, (gameObject, layer) -> true);
+                return created;
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("tree.construct".contains(filter)) {
+            BenchmarkSupport.measure("tree.construct", i -> {
+                Tree tree = new Tree(TreeBlueprint.derive(seed, i * Block.SIZE, WINDOW_HEIGHT / 2));
+                long parts = tree.getWoodBlocks().size();
+                tree.release();
+                return parts;
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+        if ("rain.shower".contains(filter)) {
+            Rain rain = new Rain(windowDimensions, RAIN_CAPACITY, seed);
+            BenchmarkSupport.measure("rain.shower", i -> {
+                // one shower per frame, the way the game spawns them while the avatar jumps
+                rain.spawnShower(0, CLOUD_HEIGHT, 0);
+                rain.step(FRAME_TIME);
+                return rain.getLiveCount();
+            }, WARMUP_ROUNDS, MEASURED_ROUNDS);
+        }
+    }
+
+    /**
+     * Parses a comma separated list of ints.
+     * @param list The list.
+     * @return The ints of the list.
+     */
+    private static int[] parseInts(String list) {
+        String[] parts = list.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    /**
+     * Runs the benchmark.
+     * @param args The comma separated window widths, the comma separated seeds and a case filter, all optional.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int[] widths = parseInts(args.length > 0 ? args[0] : DEFAULT_WIDTHS);
+        int[] seeds = parseInts(args.length > 1 ? args[1] : DEFAULT_SEEDS);
+        String filter = args.length > 2 ? args[2] : "";
+        for (int width : widths) {
+            for (int seed : seeds) {
+                runCases(width, seed, filter);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package pepse.headless;
+
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import pepse.util.ImageSource;
+import java.awt.Color;
+
+/**
+ * A stand-in for the image reader that reads no file and returns the same plain renderable for every image.
+ */
+public class BlankImageSource implements ImageSource {
+    private final Renderable blank = new RectangleRenderable(Color.MAGENTA);
+
+    /**
+     * Returns the plain renderable.
+     * @param imageFilePath Ignored.
+     * @param isTopLeftPixelTransparent Ignored.
+     * @return The plain renderable.
+     */
+    @Override
+    public Renderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent) {
+        return blank;
+    }
+}
@@ -0,0 +1,107 @@
+package pepse.headless;
+
+import danogl.GameObject;
+import pepse.util.ObjectRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A stand-in for the danogl object collection that keeps the GameObjects of every layer and updates them,
+ * without collisions and without drawing. Like the real collection, objects that are added or removed during
+ * an update take effect after it.
+ */
+public class HeadlessObjectRegistry implements ObjectRegistry {
+    private final TreeMap<Integer, LinkedHashSet<GameObject>> layers = new TreeMap<>();
+    private final List<GameObject> pendingAdds = new ArrayList<>();
+    private final List<Integer> pendingAddLayers = new ArrayList<>();
+    private final List<GameObject> pendingRemoves = new ArrayList<>();
+    private final List<Integer> pendingRemoveLayers = new ArrayList<>();
+    private boolean updating;
+
+    /**
+     * Adds a GameObject to a layer.
+     * @param gameObject The GameObject to add.
+     * @param layer The layer.
+     */
+    @Override
+    public void add(GameObject gameObject, int layer) {
+        if (updating) {
+            pendingAdds.add(gameObject);
+            pendingAddLayers.add(layer);
+        } else {
+            layers.computeIfAbsent(layer, key -> new LinkedHashSet<>()).add(gameObject);
+        }
+    }
+
+    /**
+     * Removes a GameObject from a layer.
+     * @param gameObject The GameObject to remove.
+     * @param layer The layer.
+     * @return True if the GameObject was in the layer.
+     */
+    @Override
+    public boolean remove(GameObject gameObject, int layer) {
+        LinkedHashSet<GameObject> objects = layers.get(layer);
+        if (objects == null || !objects.contains(gameObject)) {
+            return false;
+        }
+        if (updating) {
+            pendingRemoves.add(gameObject);
+            pendingRemoveLayers.add(layer);
+        } else {
+            objects.remove(gameObject);
+        }
+        return true;
+    }
+
+    /**
+     * Updates every GameObject, layer by layer, then applies the additions and removals made meanwhile.
+     * @param deltaTime The time of the tick.
+     */
+    public void update(float deltaTime) {
+        updating = true;
+        for (LinkedHashSet<GameObject> objects : layers.values()) {
+            for (GameObject gameObject : objects) {
+                gameObject.update(deltaTime);
+            }
+        }
+        updating = false;
+        for (int i = 0; i < pendingRemoves.size(); i++) {
+            layers.get(pendingRemoveLayers.get(i)).remove(pendingRemoves.get(i));
+        }
+        for (int i = 0; i < pendingAdds.size(); i++) {
+            add(pendingAdds.get(i), pendingAddLayers.get(i));
+        }
+        pendingRemoves.clear();
+        pendingRemoveLayers.clear();
+        pendingAdds.clear();
+        pendingAddLayers.clear();
+    }
+
+    /**
+     * Counts the GameObjects of every layer.
+     * @return The number of GameObjects per layer, in layer order.
+     */
+    public Map<Integer, Integer> countByLayer() {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        for (Map.Entry<Integer, LinkedHashSet<GameObject>> entry : layers.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().size());
+        }
+        return counts;
+    }
+
+    /**
+     * Counts every GameObject.
+     * @return The number of GameObjects.
+     */
+    public int count() {
+        int count = 0;
+        for (LinkedHashSet<GameObject> objects : layers.values()) {
+            count += objects.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,289 @@
+package pepse.headless;
+
+import static pepse.world.Constants.*;
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import pepse.PepseWorld;
+import pepse.util.AllocationCounter;
+import pepse.util.StartupTimer;
+import pepse.world.Block;
+import pepse.world.Terrain;
+import pepse.world.trees.Fruit;
+import pepse.world.trees.Tree;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Runs the world of the game for a fixed number of ticks without a window, and reports how fast it ran.
+ * The window, the images and the keyboard are replaced by in-process stand-ins, and a scripted input moves
+ * the avatar. There are no collisions: the runner stands in for the contact of the avatar with the ground and
+ * with the fruits, and the avatar walks through the trunks.
+ * The default route walks right for two thirds of the run and back left for the rest, over ground that is in
+ * the chunk cache. It rests between its legs so the energy comes back, and jumps after every rest, so
+ * streaming, the chunk cache, the rain and the fruit respawns all run. A run that leaves one of them idle
+ * prints a warning.
+ * Usage: java pepse.headless.HeadlessRunner [ticks] [script] [windowWidth] [windowHeight]
+ * Run with -Dpepse.telemetry=true to also dump the per-phase frame telemetry.
+ */
+public class HeadlessRunner {
+    static final float TICK_TIME = 1 / 60f;
+    private static final int DEFAULT_TICKS = 3600;
+    // a leg spends 75 energy and a rest gains 90, which pays for the leg and the jump that starts the next one
+    private static final int ROUTE_WALK_TICKS = 150;
+    private static final int ROUTE_REST_TICKS = 90;
+    private static final int JUMP_PRESS_TICKS = 5;
+    private static final int DEFAULT_WIDTH = 1024;
+    private static final int DEFAULT_HEIGHT = 768;
+    private static final float GROUND_CONTACT = 0.5f;
+    private static final int FRUIT_REACH = NUM_OF_LEAVES * Block.SIZE;
+
+    private final HeadlessObjectRegistry registry = new HeadlessObjectRegistry();
+    private final TickInput input;
+    private final PepseWorld world;
+    private final int objectsPhase;
+    private final StartupTimer startup = new StartupTimer();
+
+    /**
+     * Creates a HeadlessRunner object and the world it runs.
+     * @param script The script of the key presses.
+     * @param windowDimensions The dimensions of the stand-in window.
+     */
+    public HeadlessRunner(String script, Vector2 windowDimensions) {
+        this(new ScriptedKeyInput(script), windowDimensions, GROUND_RANDOM_SEED);
+    }
+
+    /**
+     * Creates a HeadlessRunner object and the world it runs.
+     * @param input The key presses, driven by the tick.
+     * @param windowDimensions The dimensions of the stand-in window.
+     * @param seed The seed of the world.
+     */
+    public HeadlessRunner(TickInput input, Vector2 windowDimensions, int seed) {
+        this.input = input;
+        world = new PepseWorld(windowDimensions, registry, input, new BlankImageSource(), seed);
+        world.create(startup);
+        objectsPhase = world.getTelemetry().phase("objects");
+    }
+
+    /**
+     * Runs a single tick of TICK_TIME.
+     * @param tick The index of the tick.
+     */
+    public void tick(int tick) {
+        tick(tick, TICK_TIME);
+    }
+
+    /**
+     * Runs a single tick: the GameObjects, the camera, the ground stand-in and the world checks.
+     * @param tick The index of the tick.
+     * @param deltaTime The time of the tick.
+     */
+    public void tick(int tick, float deltaTime) {
+        input.setTick(tick);
+        long start = world.getTelemetry().start();
+        registry.update(deltaTime);
+        world.getCamera().update(deltaTime);
+        keepAvatarOnGround();
+        eatTouchedFruits();
+        world.getTelemetry().stop(objectsPhase, start);
+        world.update(deltaTime);
+        if (tick == 0) {
+            startup.mark("firstFrame");
+        }
+    }
+
+    /**
+     * Stands in for the collision of the avatar with the ground. An avatar that stands on the ground rests on
+     * it without gravity, as it does on a collider, so its velocity reads zero and it can idle and jump.
+     */
+    private void keepAvatarOnGround() {
+        GameObject avatar = world.getAvatar();
+        Terrain terrain = world.getTerrain();
+        float groundHeight = (float) Math.floor(terrain.groundHeightAt(avatar.getCenter().x()) / Block.SIZE)
+                * Block.SIZE;
+        float bottom = avatar.getTopLeftCorner().y() + avatar.getDimensions().y();
+        if (bottom > groundHeight - GROUND_CONTACT && avatar.getVelocity().y() >= 0) {
+            avatar.setTopLeftCorner(new Vector2(avatar.getTopLeftCorner().x(),
+                    groundHeight - avatar.getDimensions().y()));
+            avatar.transform().setVelocityY(0);
+            avatar.transform().setAccelerationY(0);
+        } else {
+            avatar.transform().setAccelerationY(GRAVITY);
+        }
+    }
+
+    /**
+     * Stands in for the collision of the avatar with the fruits: a fruit the avatar touches is eaten and gives
+     * its energy, as in the game.
+     */
+    private void eatTouchedFruits() {
+        GameObject avatar = world.getAvatar();
+        float left = avatar.getTopLeftCorner().x();
+        float top = avatar.getTopLeftCorner().y();
+        float right = left + avatar.getDimensions().x();
+        float bottom = top + avatar.getDimensions().y();
+        for (Tree tree : world.getFlora().treesInRange((int) left - FRUIT_REACH, (int) right + FRUIT_REACH)) {
+            for (ArrayList<Fruit> row : tree.getFruitBlocks()) {
+                for (Fruit fruit : row) {
+                    if (fruit == null || fruit.isEaten()) {
+                        continue;
+                    }
+                    Vector2 corner = fruit.getTopLeftCorner();
+                    Vector2 dimensions = fruit.getDimensions();
+                    if (corner.x() < right && corner.x() + dimensions.x() > left
+                            && corner.y() < bottom && corner.y() + dimensions.y() > top) {
+                        fruit.onCollisionEnter(avatar, null);
+                        avatar.onCollisionEnter(fruit, null);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the background work of the world.
+     */
+    public void stop() {
+        world.stop();
+    }
+
+    /**
+     * Gets the timer of the startup, which ends with the first tick.
+     * @return The startup timer.
+     */
+    public StartupTimer getStartup() {
+        return startup;
+    }
+
+    /**
+     * Gets the world the runner runs.
+     * @return The world.
+     */
+    public PepseWorld getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the registry of the GameObjects of the world.
+     * @return The object registry.
+     */
+    public HeadlessObjectRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Returns the name of a danogl layer.
+     * @param layer The layer.
+     * @return The name of the layer.
+     */
+    static String layerName(int layer) {
+        if (layer == Layer.BACKGROUND) {
+            return "background";
+        } else if (layer == Layer.STATIC_OBJECTS) {
+            return "static";
+        } else if (layer == Layer.DEFAULT) {
+            return "default";
+        } else if (layer == Layer.FOREGROUND) {
+            return "foreground";
+        } else if (layer == Layer.UI) {
+            return "ui";
+        }
+        return String.valueOf(layer);
+    }
+
+    /**
+     * Prints the number of GameObjects of every layer and the state of the pools and caches.
+     */
+    public void printCounts() {
+        for (Map.Entry<Integer, Integer> entry : registry.countByLayer().entrySet()) {
+            System.out.printf("  %-10s %6d objects%n", layerName(entry.getKey()), entry.getValue());
+        }
+        Terrain terrain = world.getTerrain();
+        System.out.printf("  terrain    %6d chunks generated, %d cache hits, %d evictions%n",
+                terrain.getChunksGenerated(), terrain.getChunkCacheHits(), terrain.getChunkEvictions());
+        System.out.printf("  flora      %6d trees, %d blueprints%n",
+                world.getFlora().getTreeCount(), world.getFlora().getBlueprintCount());
+        System.out.printf("  rain       %6d live drops, %d spawned, %d overflowed%n",
+                world.getRain().getLiveCount(), world.getRain().getSpawned(), world.getRain().getOverflowed());
+        System.out.println("  block pool " + Block.getPool());
+        System.out.println("  fruit pool " + Fruit.getPool());
+        System.out.println("  respawns   " + Fruit.getRespawns());
+    }
+
+    /**
+     * Builds the default route: legs to the right for two thirds of the ticks and back left for the rest, with
+     * a rest between the legs and a jump at the start of every leg.
+     * @param ticks The number of ticks of the run.
+     * @return The key script of the route.
+     */
+    static String defaultScript(int ticks) {
+        int turn = ticks * 2 / 3;
+        StringBuilder script = new StringBuilder();
+        for (int leg = 0; leg < ticks; leg += ROUTE_WALK_TICKS + ROUTE_REST_TICKS) {
+            int end = Math.min(ticks, leg + ROUTE_WALK_TICKS) - 1;
+            if (script.length() > 0) {
+                script.append(',');
+            }
+            script.append(leg < turn ? "RIGHT:" : "LEFT:").append(leg).append('-').append(end);
+            script.append(",SPACE:").append(leg).append('-').append(leg + JUMP_PRESS_TICKS);
+        }
+        return script.toString();
+    }
+
+    /**
+     * Prints a warning for every path the series optimises that the run left idle.
+     */
+    public void warnIdlePaths() {
+        Terrain terrain = world.getTerrain();
+        warnIfZero(terrain.getChunkCacheHits(), "no chunk came back from the chunk cache");
+        warnIfZero(terrain.getChunkEvictions(), "no chunk was evicted from the chunk cache");
+        warnIfZero(world.getRain().getSpawned(), "no rain drop was spawned");
+        warnIfZero(Fruit.getRespawns().getScheduled(), "no fruit was eaten, so nothing respawned");
+    }
+
+    /**
+     * Prints a warning if a counter stayed at zero.
+     * @param counter The counter.
+     * @param warning The warning.
+     */
+    private static void warnIfZero(long counter, String warning) {
+        if (counter == 0) {
+            System.out.println("  warning: " + warning + ", the route does not cover it");
+        }
+    }
+
+    /**
+     * Runs the world and reports ticks per second, allocation and object counts.
+     * @param args The number of ticks, the key script and the window dimensions, all optional.
+     */
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        String script = args.length > 1 ? args[1] : defaultScript(ticks);
+        int width = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_WIDTH;
+        int height = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_HEIGHT;
+
+        HeadlessRunner runner = new HeadlessRunner(script, new Vector2(width, height));
+        long allocatedBefore = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            runner.tick(tick);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = AllocationCounter.allocatedBytes() - allocatedBefore;
+        runner.stop();
+
+        System.out.printf("headless run, %d ticks, window %dx%d, script %s%n", ticks, width, height, script);
+        System.out.printf("  %.1f ticks/s, %.1f us/tick%n",
+                ticks / (elapsed / 1e9), elapsed / 1e3 / ticks);
+        System.out.printf("  %.1f B/tick allocated on the game thread (%d B total)%n",
+                (double) allocated / ticks, allocated);
+        runner.getStartup().print(System.out, STARTUP_BUDGET_MS);
+        runner.printCounts();
+        runner.warnIdlePaths();
+        if (runner.getWorld().getTelemetry().isEnabled()) {
+            runner.getWorld().getTelemetry().dump(System.out);
+        }
+    }
+}
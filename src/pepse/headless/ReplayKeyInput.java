@@ -0,0 +1,38 @@
+package pepse.headless;
+
+import pepse.util.InputRecording;
+
+/**
+ * Key presses that replay a recording, one recorded frame per tick. After the last frame no key is pressed.
+ */
+public class ReplayKeyInput implements TickInput {
+    private final InputRecording recording;
+    private byte mask;
+
+    /**
+     * Creates a ReplayKeyInput object.
+     * @param recording The recording to replay.
+     */
+    public ReplayKeyInput(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    /**
+     * Moves the replay to a tick.
+     * @param tick The current tick, which is the index of the recorded frame.
+     */
+    @Override
+    public void setTick(int tick) {
+        mask = tick < recording.getFrameCount() ? recording.getKeyMask(tick) : 0;
+    }
+
+    /**
+     * Returns whether a key was pressed in the recorded frame.
+     * @param keyCode The code of the key.
+     * @return True if the key was pressed.
+     */
+    @Override
+    public boolean isKeyPressed(int keyCode) {
+        return InputRecording.isPressed(mask, keyCode);
+    }
+}
@@ -0,0 +1,201 @@
+package pepse.headless;
+
+import danogl.util.Vector2;
+import pepse.util.InputRecorder;
+import pepse.util.InputRecording;
+import pepse.util.RollingHistogram;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records, replays and compares sessions for performance regression runs.
+ * A recording holds the seed, the window size and the per-frame input of a session, made by the game with
+ * -Dpepse.record=<file> or here from a key script. A replay runs the recording headless in a window of the
+ * recorded size, frame by frame with the recorded frame times, and writes a per-tick timing trace as CSV.
+ * Two traces of the same recording, made by two builds, can then be compared.
+ * The headless world has no collisions, only stand-ins for the ground and the fruits, so a replay follows the
+ * recorded keys but not the recorded session: the avatar walks through the tree trunks, and its energy follows
+ * the fruits it touches there. Replays of one recording match each other, which is what a comparison of two
+ * builds needs.
+ * Usage:
+ *   java pepse.headless.ReplayRunner record [script] [ticks] [seed] [recording] [windowWidth] [windowHeight]
+ *   java pepse.headless.ReplayRunner replay [recording] [trace.csv]
+ *   java pepse.headless.ReplayRunner diff [before.csv] [after.csv]
+ */
+public class ReplayRunner {
+    private static final String TRACE_HEADER = "tick,frameTime,nanos,objects,chunks,trees,drops";
+    private static final int SLOWEST_TICKS = 10;
+    private static final int DEFAULT_WIDTH = 1024;
+    private static final int DEFAULT_HEIGHT = 768;
+
+    /**
+     * Records a key script as if it was played at 60 frames per second.
+     * @param script The key script, as for ScriptedKeyInput.
+     * @param ticks The number of ticks.
+     * @param seed The seed of the world.
+     * @param windowDimensions The dimensions of the window.
+     * @return The recording.
+     */
+    public static InputRecording record(String script, int ticks, int seed, Vector2 windowDimensions) {
+        ScriptedKeyInput input = new ScriptedKeyInput(script);
+        InputRecorder recorder = new InputRecorder(input, seed, windowDimensions);
+        for (int tick = 0; tick < ticks; tick++) {
+            input.setTick(tick);
+            recorder.beginFrame(HeadlessRunner.TICK_TIME);
+        }
+        return recorder.toRecording();
+    }
+
+    /**
+     * Replays a recording in a stand-in window of the recorded size, and writes the timing trace of every tick.
+     * The trace is kept in arrays during the replay and written after it, so writing it does not disturb the
+     * timing.
+     * @param recording The recording.
+     * @param trace The writer of the trace.
+     * @return The time of every tick in nanoseconds.
+     */
+    public static long[] replay(InputRecording recording, PrintWriter trace) {
+        HeadlessRunner runner = new HeadlessRunner(new ReplayKeyInput(recording), recording.getWindowDimensions(),
+                recording.getSeed());
+        int ticks = recording.getFrameCount();
+        long[] nanos = new long[ticks];
+        int[][] counts = new int[4][ticks];
+        for (int tick = 0; tick < ticks; tick++) {
+            long start = System.nanoTime();
+            runner.tick(tick, recording.getFrameTime(tick));
+            nanos[tick] = System.nanoTime() - start;
+            counts[0][tick] = runner.getRegistry().count();
+            counts[1][tick] = runner.getWorld().getTerrain().getActiveChunks().size();
+            counts[2][tick] = runner.getWorld().getFlora().getTreeCount();
+            counts[3][tick] = runner.getWorld().getRain().getLiveCount();
+        }
+        runner.stop();
+
+        trace.println(TRACE_HEADER);
+        for (int tick = 0; tick < ticks; tick++) {
+            trace.printf("%d,%s,%d,%d,%d,%d,%d%n", tick, recording.getFrameTime(tick), nanos[tick],
+                    counts[0][tick], counts[1][tick], counts[2][tick], counts[3][tick]);
+        }
+        return nanos;
+    }
+
+    /**
+     * Reads the tick times of a trace.
+     * @param trace The path of the trace.
+     * @return The time of every tick in nanoseconds.
+     * @throws IOException If the trace cannot be read.
+     */
+    private static long[] readTickNanos(Path trace) throws IOException {
+        List<String> lines = Files.readAllLines(trace, StandardCharsets.UTF_8);
+        long[] nanos = new long[lines.size() - 1];
+        for (int i = 1; i < lines.size(); i++) {
+            nanos[i - 1] = Long.parseLong(lines.get(i).split(",")[2]);
+        }
+        return nanos;
+    }
+
+    /**
+     * Summarizes tick times as percentiles.
+     * @param nanos The tick times.
+     * @return The histogram of the tick times.
+     */
+    private static RollingHistogram histogramOf(long[] nanos) {
+        RollingHistogram histogram = new RollingHistogram(Math.max(1, nanos.length));
+        for (long tickNanos : nanos) {
+            histogram.record(tickNanos);
+        }
+        return histogram;
+    }
+
+    /**
+     * Prints the percentiles of two traces and the ticks that slowed down the most.
+     * @param before The tick times of the first build.
+     * @param after The tick times of the second build.
+     */
+    private static void diff(long[] before, long[] after) {
+        RollingHistogram beforeHistogram = histogramOf(before);
+        RollingHistogram afterHistogram = histogramOf(after);
+        System.out.printf("%-8s %12s %12s %8s%n", "", "before us", "after us", "change");
+        printRow("p50", beforeHistogram.percentile(50), afterHistogram.percentile(50));
+        printRow("p99", beforeHistogram.percentile(99), afterHistogram.percentile(99));
+        printRow("max", beforeHistogram.max(), afterHistogram.max());
+
+        int ticks = Math.min(before.length, after.length);
+        if (before.length != after.length) {
+            System.out.printf("the traces have %d and %d ticks, comparing the first %d%n",
+                    before.length, after.length, ticks);
+        }
+        List<Integer> slowest = new ArrayList<>();
+        for (int tick = 0; tick < ticks; tick++) {
+            slowest.add(tick);
+        }
+        slowest.sort((a, b) -> Long.compare(after[b] - before[b], after[a] - before[a]));
+        System.out.println("slowest ticks after:");
+        for (int tick : slowest.subList(0, Math.min(SLOWEST_TICKS, slowest.size()))) {
+            System.out.printf("  tick %6d %10.1f us -> %10.1f us%n", tick, before[tick] / 1e3, after[tick] / 1e3);
+        }
+    }
+
+    /**
+     * Prints a row of the comparison.
+     * @param name The name of the row.
+     * @param before The value of the first build in nanoseconds.
+     * @param after The value of the second build in nanoseconds.
+     */
+    private static void printRow(String name, long before, long after) {
+        System.out.printf("%-8s %12.1f %12.1f %+7.1f%%%n", name, before / 1e3, after / 1e3,
+                before == 0 ? 0 : 100.0 * (after - before) / before);
+    }
+
+    /**
+     * Runs a mode of the replay runner.
+     * @param args The mode and its arguments.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        String mode = args.length > 0 ? args[0] : "";
+        switch (mode) {
+            case "record": {
+                String script = args.length > 1 ? args[1] : "RIGHT:0-3599,SPACE:0-3599";
+                int ticks = args.length > 2 ? Integer.parseInt(args[2]) : 3600;
+                int seed = args.length > 3 ? Integer.parseInt(args[3]) : 1234;
+                Path path = Paths.get(args.length > 4 ? args[4] : "pepse-input.rec");
+                int width = args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_WIDTH;
+                int height = args.length > 6 ? Integer.parseInt(args[6]) : DEFAULT_HEIGHT;
+                record(script, ticks, seed, new Vector2(width, height)).write(path);
+                System.out.println("recorded " + ticks + " ticks of " + script + " to " + path);
+                break;
+            }
+            case "replay": {
+                InputRecording recording = InputRecording.read(Paths.get(args.length > 1 ? args[1]
+                        : "pepse-input.rec"));
+                Path tracePath = Paths.get(args.length > 2 ? args[2] : "pepse-trace.csv");
+                long[] nanos;
+                try (PrintWriter trace = new PrintWriter(Files.newBufferedWriter(tracePath,
+                        StandardCharsets.UTF_8))) {
+                    nanos = replay(recording, trace);
+                }
+                RollingHistogram histogram = histogramOf(nanos);
+                System.out.printf("replayed %d ticks of world %d to %s: p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                        nanos.length, recording.getSeed(), tracePath, histogram.percentile(50) / 1e3,
+                        histogram.percentile(99) / 1e3, histogram.max() / 1e3);
+                break;
+            }
+            case "diff":
+                if (args.length < 3) {
+                    throw new IllegalArgumentException("diff needs two traces");
+                }
+                diff(readTickNanos(Paths.get(args[1])), readTickNanos(Paths.get(args[2])));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown mode '" + mode + "', use record, replay or diff");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package pepse.headless;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Key presses that follow a script of tick ranges, such as "RIGHT:0-600,SPACE:100-110,LEFT:600-900".
+ * A key is pressed from the first tick of its range up to and including the last one.
+ */
+public class ScriptedKeyInput implements TickInput {
+    private final List<int[]> presses = new ArrayList<>();
+    private int tick;
+
+    /**
+     * Creates a ScriptedKeyInput object.
+     * @param script The comma separated presses, each a key name (LEFT, RIGHT, SPACE), a colon and a tick range.
+     */
+    public ScriptedKeyInput(String script) {
+        for (String press : script.split(",")) {
+            if (press.isBlank()) {
+                continue;
+            }
+            String[] keyAndRange = press.trim().split(":");
+            String[] range = keyAndRange[1].split("-");
+            presses.add(new int[]{keyCode(keyAndRange[0]), Integer.parseInt(range[0]),
+                    Integer.parseInt(range[range.length - 1])});
+        }
+    }
+
+    /**
+     * Returns the key code of a key name.
+     * @param name The name of the key.
+     * @return The key code.
+     */
+    private static int keyCode(String name) {
+        switch (name.toUpperCase()) {
+            case "LEFT":
+                return KeyEvent.VK_LEFT;
+            case "RIGHT":
+                return KeyEvent.VK_RIGHT;
+            case "SPACE":
+                return KeyEvent.VK_SPACE;
+            default:
+                throw new IllegalArgumentException("unknown key " + name);
+        }
+    }
+
+    /**
+     * Moves the script to a tick.
+     * @param tick The current tick.
+     */
+    @Override
+    public void setTick(int tick) {
+        this.tick = tick;
+    }
+
+    /**
+     * Returns whether a key is pressed at the current tick.
+     * @param keyCode The code of the key.
+     * @return True if the script presses the key at the current tick.
+     */
+    @Override
+    public boolean isKeyPressed(int keyCode) {
+        for (int[] press : presses) {
+            if (press[0] == keyCode && tick >= press[1] && tick <= press[2]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+package pepse.headless;
+
+import pepse.util.KeyInput;
+
+/**
+ * A key input that is driven by the tick of the headless runner.
+ */
+public interface TickInput extends KeyInput {
+
+    /**
+     * Moves the input to a tick.
+     * @param tick The current tick.
+     */
+    void setTick(int tick);
+}
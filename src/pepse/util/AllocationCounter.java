@@ -0,0 +1,26 @@
+package pepse.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes the current thread allocated, for the headless runs and the benchmarks.
+ */
+public final class AllocationCounter {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private AllocationCounter() {
+    }
+
+    /**
+     * Returns the number of bytes the current thread allocated so far, or 0 if the JVM cannot tell.
+     * @return The number of allocated bytes.
+     */
+    public static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,105 @@
+package pepse.util;
+
+import danogl.gui.rendering.Renderable;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * An image source that serves a fixed set of images from a sprite atlas, and every other image from another
+ * source. The atlas is built on the first read: from its cache file if the cache has every image and is newer
+ * than all of them, and otherwise by decoding and packing the images, after which the cache is written.
+ * Reads may come from several threads at once; the first one builds the atlas and the others wait for it.
+ */
+public class AtlasImageSource implements ImageSource {
+    private final List<String> imagePaths;
+    private final Path cacheFile;
+    private final ImageSource fallback;
+    private SpriteAtlas atlas;
+
+    /**
+     * Creates an AtlasImageSource object.
+     * @param imagePaths The paths of the images that are packed into the atlas.
+     * @param cacheFile The path of the cached atlas image.
+     * @param fallback The source of the images that are not in the atlas.
+     */
+    public AtlasImageSource(List<String> imagePaths, Path cacheFile, ImageSource fallback) {
+        this.imagePaths = new ArrayList<>(imagePaths);
+        this.cacheFile = cacheFile;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Reads an image, from the atlas if it was packed into it.
+     * @param imageFilePath The path of the image file.
+     * @param isTopLeftPixelTransparent Whether the color of the top left pixel is drawn as transparent.
+     * @return The image renderable.
+     */
+    @Override
+    public Renderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent) {
+        // the atlas keeps the pixels as they are, transparent backgrounds come from the fallback
+        if (!isTopLeftPixelTransparent && imagePaths.contains(imageFilePath)) {
+            return atlas().frame(imageFilePath);
+        }
+        return fallback.readImage(imageFilePath, isTopLeftPixelTransparent);
+    }
+
+    /**
+     * Returns the atlas, building it on the first call.
+     * @return The atlas.
+     */
+    public synchronized SpriteAtlas atlas() {
+        if (atlas == null) {
+            atlas = readCache();
+            if (atlas == null) {
+                atlas = build();
+            }
+        }
+        return atlas;
+    }
+
+    /**
+     * Reads the cached atlas, if it is up to date.
+     * @return The cached atlas, or null if there is none or it is stale.
+     */
+    private SpriteAtlas readCache() {
+        try {
+            if (!Files.exists(cacheFile)) {
+                return null;
+            }
+            long cacheTime = Files.getLastModifiedTime(cacheFile).toMillis();
+            for (String path : imagePaths) {
+                if (ImageFileSource.lastModified(path) > cacheTime) {
+                    return null;
+                }
+            }
+            SpriteAtlas cached = SpriteAtlas.read(cacheFile);
+            return cached.getFrameNames().equals(imagePaths) ? cached : null;
+        } catch (IOException | RuntimeException e) {
+            // a broken cache is rebuilt
+            return null;
+        }
+    }
+
+    /**
+     * Decodes and packs the images, and writes the cache.
+     * @return The new atlas.
+     */
+    private SpriteAtlas build() {
+        // only the first run decodes every image, so it decodes them in parallel
+        List<BufferedImage> images = imagePaths.parallelStream()
+                .map(ImageFileSource::decode)
+                .collect(Collectors.toList());
+        SpriteAtlas packed = SpriteAtlas.pack(imagePaths, images);
+        try {
+            packed.write(cacheFile);
+        } catch (IOException e) {
+            System.err.println("cannot cache sprite atlas " + cacheFile + ": " + e.getMessage());
+        }
+        return packed;
+    }
+}
@@ -1,78 +1,228 @@
-package pepse.util;
-
-import java.awt.*;
-import java.util.Random;
-
-/**
- * Provides procedurally-generated colors around a pivot.
- * @author Dan Nirel
- */
-public final class ColorSupplier {
-    private static final int DEFAULT_COLOR_DELTA = 10;
-    private final static Random random = new Random();
-
-    /**
-     * Returns a color similar to baseColor, with a default delta.
-     *
-     * @param baseColor A color that we wish to approximate.
-     * @return A color similar to baseColor.
-     */
-    public static Color approximateColor(Color baseColor) {
-        return approximateColor(baseColor, DEFAULT_COLOR_DELTA);
-    }
-
-
-    /**
-     * Returns a color similar to baseColor, with a difference of at most colorDelta.
-     * Where the difference is equal along all channels
-     *
-     * @param baseColor A color that we wish to approximate.
-     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
-     * @return A color similar to baseColor.
-     */
-    public static Color approximateMonoColor(Color baseColor, int colorDelta){
-        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta);
-        return new Color(channel, channel, channel);
-    }
-
-
-
-    /**
-     * Returns a color similar to baseColor, with a default delta.
-     * Where the difference is equal along all channels
-     *
-     * @param baseColor A color that we wish to approximate.
-     * @return A color similar to baseColor.
-     */
-    public static Color approximateMonoColor(Color baseColor) {
-        return approximateMonoColor(baseColor, DEFAULT_COLOR_DELTA);
-    }
-
-
-    /**
-     * Returns a color similar to baseColor, with a difference of at most colorDelta.
-     *
-     * @param baseColor A color that we wish to approximate.
-     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
-     * @return A color similar to baseColor.
-     */
-    public static Color approximateColor(Color baseColor, int colorDelta) {
-
-        return new Color(
-                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
-                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
-                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
-    }
-
-    /**
-     * This method generates a random value for a color channel within the given range [min, max].
-     *
-     * @param min The lower bound of the given range.
-     * @param max The upper bound of the given range.
-     * @return A random number in the range [min, max], clipped to [0,255].
-     */
-    private static int randomChannelInRange(int min, int max) {
-        int channel = random.nextInt(max-min+1) + min;
-        return Math.min(255, Math.max(channel, 0));
-    }
-}
+package pepse.util;
+
+import danogl.gui.rendering.OvalRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Provides procedurally-generated colors around a pivot.
+ * @author Dan Nirel
+ */
+public final class ColorSupplier {
+    private static final int DEFAULT_COLOR_DELTA = 10;
+    private final static Random random = new Random();
+    private static final int DEFAULT_PALETTE_LEVELS = 32;
+    private static final int RECTANGLE_SHAPE = 0;
+    private static final int OVAL_SHAPE = 1;
+    private static final int MAX_PALETTE_LEVELS = 64;
+    private static final int SHAPES = 2;
+    private static int paletteLevels;
+    private static Renderable[] renderables;
+    private static int renderableCount;
+
+    static {
+        setPaletteLevels(Integer.getInteger("pepse.paletteLevels", DEFAULT_PALETTE_LEVELS));
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor) {
+        return approximateColor(baseColor, DEFAULT_COLOR_DELTA);
+    }
+
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta.
+     * Where the difference is equal along all channels
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateMonoColor(Color baseColor, int colorDelta){
+        int channel = randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta);
+        return new Color(channel, channel, channel);
+    }
+
+
+
+    /**
+     * Returns a color similar to baseColor, with a default delta.
+     * Where the difference is equal along all channels
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateMonoColor(Color baseColor) {
+        return approximateMonoColor(baseColor, DEFAULT_COLOR_DELTA);
+    }
+
+
+    /**
+     * Returns a color similar to baseColor, with a difference of at most colorDelta.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param colorDelta The maximal difference (per channel) between the sampled color and the base color.
+     * @return A color similar to baseColor.
+     */
+    public static Color approximateColor(Color baseColor, int colorDelta) {
+
+        return new Color(
+                randomChannelInRange(baseColor.getRed()-colorDelta, baseColor.getRed()+colorDelta),
+                randomChannelInRange(baseColor.getGreen()-colorDelta, baseColor.getGreen()+colorDelta),
+                randomChannelInRange(baseColor.getBlue()-colorDelta, baseColor.getBlue()+colorDelta));
+    }
+
+    /**
+     * Returns a color similar to baseColor, with a default delta, that only depends on a jitter seed.
+     * The same seed always gives the same color.
+     *
+     * @param baseColor A color that we wish to approximate.
+     * @param jitterSeed The seed of the difference from the base color.
+     * @return A color similar to baseColor.
+     */
+    public static Color seededColor(Color baseColor, long jitterSeed) {
+        return new Color(
+                seededChannel(baseColor.getRed(), SplitMix.hash(jitterSeed, 0)),
+                seededChannel(baseColor.getGreen(), SplitMix.hash(jitterSeed, 1)),
+                seededChannel(baseColor.getBlue(), SplitMix.hash(jitterSeed, 2)));
+    }
+
+    /**
+     * Returns a channel value within DEFAULT_COLOR_DELTA of a base channel, chosen by a hash.
+     *
+     * @param baseChannel The channel to approximate.
+     * @param hash A pseudo-random value.
+     * @return A channel value, clipped to [0,255].
+     */
+    private static int seededChannel(int baseChannel, long hash) {
+        int channel = baseChannel - DEFAULT_COLOR_DELTA
+                + (int) Long.remainderUnsigned(hash, 2 * DEFAULT_COLOR_DELTA + 1);
+        return Math.min(255, Math.max(channel, 0));
+    }
+
+    /**
+     * Returns a shared rectangle renderable of the palette color closest to a color.
+     * The renderables are flyweights: there is at most one per palette color and shape.
+     * Like the rest of the game objects, the cache is meant to be used from the game thread.
+     *
+     * @param color The color of the rectangle.
+     * @return A rectangle renderable of the quantized color.
+     */
+    public static RectangleRenderable rectangle(Color color) {
+        int index = renderableIndex(RECTANGLE_SHAPE, color);
+        if (renderables[index] == null) {
+            renderables[index] = new RectangleRenderable(quantize(color));
+            renderableCount++;
+        }
+        return (RectangleRenderable) renderables[index];
+    }
+
+    /**
+     * Returns a shared oval renderable of the palette color closest to a color.
+     *
+     * @param color The color of the oval.
+     * @return An oval renderable of the quantized color.
+     */
+    public static OvalRenderable oval(Color color) {
+        int index = renderableIndex(OVAL_SHAPE, color);
+        if (renderables[index] == null) {
+            renderables[index] = new OvalRenderable(quantize(color));
+            renderableCount++;
+        }
+        return (OvalRenderable) renderables[index];
+    }
+
+    /**
+     * Returns the palette color closest to a color.
+     *
+     * @param color A color.
+     * @return The quantized color.
+     */
+    public static Color quantize(Color color) {
+        return new Color(levelChannel(channelLevel(color.getRed())), levelChannel(channelLevel(color.getGreen())),
+                levelChannel(channelLevel(color.getBlue())));
+    }
+
+    /**
+     * Sets the number of levels per channel of the palette, and empties the renderable cache.
+     * There are at most two renderables (rectangle and oval) per level combination.
+     *
+     * @param levels The number of levels per channel, clipped to [2,64].
+     */
+    public static void setPaletteLevels(int levels) {
+        paletteLevels = Math.min(MAX_PALETTE_LEVELS, Math.max(2, levels));
+        renderables = new Renderable[SHAPES * paletteLevels * paletteLevels * paletteLevels];
+        renderableCount = 0;
+    }
+
+    /**
+     * Gets the number of levels per channel of the palette.
+     *
+     * @return The number of levels per channel.
+     */
+    public static int getPaletteLevels() {
+        return paletteLevels;
+    }
+
+    /**
+     * Gets the number of distinct renderables the cache handed out.
+     *
+     * @return The number of cached renderables.
+     */
+    public static int getCachedRenderableCount() {
+        return renderableCount;
+    }
+
+    /**
+     * Returns the index of the cached renderable of a shape and a color.
+     *
+     * @param shape The shape.
+     * @param color The color.
+     * @return The index in the renderable cache.
+     */
+    private static int renderableIndex(int shape, Color color) {
+        int red = channelLevel(color.getRed());
+        int green = channelLevel(color.getGreen());
+        int blue = channelLevel(color.getBlue());
+        return ((shape * paletteLevels + red) * paletteLevels + green) * paletteLevels + blue;
+    }
+
+    /**
+     * Returns the palette level whose channel value is closest to a channel value.
+     *
+     * @param channel A channel value in [0,255].
+     * @return The level, in [0,paletteLevels-1].
+     */
+    private static int channelLevel(int channel) {
+        return (channel * (paletteLevels - 1) + 127) / 255;
+    }
+
+    /**
+     * Returns the channel value of a palette level.
+     *
+     * @param level A level in [0,paletteLevels-1].
+     * @return The channel value, where the lowest and the highest levels are 0 and 255.
+     */
+    private static int levelChannel(int level) {
+        return (level * 255 + (paletteLevels - 1) / 2) / (paletteLevels - 1);
+    }
+
+    /**
+     * This method generates a random value for a color channel within the given range [min, max].
+     *
+     * @param min The lower bound of the given range.
+     * @param max The upper bound of the given range.
+     * @return A random number in the range [min, max], clipped to [0,255].
+     */
+    private static int randomChannelInRange(int min, int max) {
+        int channel = random.nextInt(max-min+1) + min;
+        return Math.min(255, Math.max(channel, 0));
+    }
+}
@@ -0,0 +1,136 @@
+package pepse.util;
+
+import danogl.GameObject;
+import java.util.Arrays;
+
+/**
+ * An object registry that passes every call on to another one, and counts the live GameObjects per layer and
+ * per tag. There are only a handful of layers and tags, so the counts are kept in small arrays and counting
+ * allocates nothing once every layer and tag was seen.
+ */
+public class CountingObjectRegistry implements ObjectRegistry {
+    private final ObjectRegistry delegate;
+    private int[] layers = new int[0];
+    private int[] layerCounts = new int[0];
+    private String[] tags = new String[0];
+    private int[] tagCounts = new int[0];
+
+    /**
+     * Creates a CountingObjectRegistry object.
+     * @param delegate The registry the calls are passed on to.
+     */
+    public CountingObjectRegistry(ObjectRegistry delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Adds a GameObject to a layer and counts it.
+     * @param gameObject The GameObject to add.
+     * @param layer The layer.
+     */
+    @Override
+    public void add(GameObject gameObject, int layer) {
+        delegate.add(gameObject, layer);
+        // the index is taken first, since a new layer or tag grows the count arrays
+        int layerIndex = layerIndex(layer);
+        int tagIndex = tagIndex(gameObject.getTag());
+        layerCounts[layerIndex]++;
+        tagCounts[tagIndex]++;
+    }
+
+    /**
+     * Removes a GameObject from a layer and stops counting it.
+     * @param gameObject The GameObject to remove.
+     * @param layer The layer.
+     * @return True if the GameObject was in the layer.
+     */
+    @Override
+    public boolean remove(GameObject gameObject, int layer) {
+        boolean removed = delegate.remove(gameObject, layer);
+        if (removed) {
+            int layerIndex = layerIndex(layer);
+            int tagIndex = tagIndex(gameObject.getTag());
+            layerCounts[layerIndex]--;
+            tagCounts[tagIndex]--;
+        }
+        return removed;
+    }
+
+    /**
+     * Returns the index of a layer in the counts, adding it if it is new.
+     * @param layer The layer.
+     * @return The index of the layer.
+     */
+    private int layerIndex(int layer) {
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] == layer) {
+                return i;
+            }
+        }
+        layers = Arrays.copyOf(layers, layers.length + 1);
+        layerCounts = Arrays.copyOf(layerCounts, layerCounts.length + 1);
+        layers[layers.length - 1] = layer;
+        return layers.length - 1;
+    }
+
+    /**
+     * Returns the index of a tag in the counts, adding it if it is new.
+     * @param tag The tag.
+     * @return The index of the tag.
+     */
+    private int tagIndex(String tag) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i].equals(tag)) {
+                return i;
+            }
+        }
+        tags = Arrays.copyOf(tags, tags.length + 1);
+        tagCounts = Arrays.copyOf(tagCounts, tagCounts.length + 1);
+        tags[tags.length - 1] = tag;
+        return tags.length - 1;
+    }
+
+    /**
+     * Gets the number of live GameObjects in a layer.
+     * @param layer The layer.
+     * @return The number of GameObjects.
+     */
+    public int countOfLayer(int layer) {
+        for (int i = 0; i < layers.length; i++) {
+            if (layers[i] == layer) {
+                return layerCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the number of live GameObjects with a tag.
+     * @param tag The tag.
+     * @return The number of GameObjects.
+     */
+    public int countOfTag(String tag) {
+        for (int i = 0; i < tags.length; i++) {
+            if (tags[i].equals(tag)) {
+                return tagCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the layers that were seen so far.
+     * @return A copy of the layers.
+     */
+    public int[] getLayers() {
+        return layers.clone();
+    }
+
+    /**
+     * Gets the tags that were seen so far.
+     * @return A copy of the tags.
+     */
+    public String[] getTags() {
+        return tags.clone();
+    }
+}
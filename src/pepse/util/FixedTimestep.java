@@ -0,0 +1,83 @@
+package pepse.util;
+
+/**
+ * Turns the variable time of the frames into a whole number of fixed simulation steps.
+ * The time left over after the last step is kept for the next frame, and its share of a step is the
+ * interpolation factor for drawing between the last two steps. A step time of 0 turns the fixed steps off:
+ * every frame is then a single step of the frame time.
+ */
+public class FixedTimestep {
+    private final float stepTime;
+    private final int maxStepsPerFrame;
+    private float accumulator;
+    private float lastStepTime;
+    private long steps;
+    private long droppedNanos;
+
+    /**
+     * Creates a FixedTimestep object.
+     * @param stepsPerSecond The number of steps per second, or 0 for a single step per frame.
+     * @param maxStepsPerFrame The most steps a single frame runs; the time of any further steps is dropped,
+     *                         so a slow frame does not make the next frames slower.
+     */
+    public FixedTimestep(float stepsPerSecond, int maxStepsPerFrame) {
+        this.stepTime = stepsPerSecond > 0 ? 1 / stepsPerSecond : 0;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.lastStepTime = stepTime;
+    }
+
+    /**
+     * Adds the time of a frame and returns the number of steps to run for it.
+     * @param deltaTime The time elapsed since the last frame.
+     * @return The number of steps, each of getStepTime seconds.
+     */
+    public int advance(float deltaTime) {
+        if (stepTime == 0) {
+            lastStepTime = deltaTime;
+            steps++;
+            return 1;
+        }
+        accumulator += deltaTime;
+        int frameSteps = (int) (accumulator / stepTime);
+        if (frameSteps > maxStepsPerFrame) {
+            droppedNanos += (long) ((frameSteps - maxStepsPerFrame) * stepTime * 1e9);
+            frameSteps = maxStepsPerFrame;
+            accumulator = stepTime * frameSteps + accumulator % stepTime;
+        }
+        accumulator -= frameSteps * stepTime;
+        steps += frameSteps;
+        return frameSteps;
+    }
+
+    /**
+     * Gets the time of a single step.
+     * @return The step time in seconds; without fixed steps, the time of the last frame.
+     */
+    public float getStepTime() {
+        return lastStepTime;
+    }
+
+    /**
+     * Gets how far the time is between the last step and the next one.
+     * @return The interpolation factor, between 0 and 1; always 1 without fixed steps.
+     */
+    public float getAlpha() {
+        return stepTime == 0 ? 1 : accumulator / stepTime;
+    }
+
+    /**
+     * Gets the number of steps that were run.
+     * @return The number of steps.
+     */
+    public long getSteps() {
+        return steps;
+    }
+
+    /**
+     * Gets the simulation time that was dropped because frames were too slow.
+     * @return The dropped time in nanoseconds.
+     */
+    public long getDroppedNanos() {
+        return droppedNanos;
+    }
+}
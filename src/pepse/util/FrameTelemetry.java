@@ -0,0 +1,131 @@
+package pepse.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Records the time of every phase of a frame into rolling histograms, and dumps them on demand together with
+ * the live GameObject counts per layer and per tag and any extra gauges. While it is disabled, timing a phase
+ * costs a single boolean check.
+ */
+public class FrameTelemetry {
+    private final List<String> phaseNames = new ArrayList<>();
+    private final List<RollingHistogram> phaseTimes = new ArrayList<>();
+    private final List<String> gaugeNames = new ArrayList<>();
+    private final List<IntSupplier> gauges = new ArrayList<>();
+    private final int samples;
+    private CountingObjectRegistry objectCounts;
+    private boolean enabled;
+
+    /**
+     * Creates a FrameTelemetry object.
+     * @param samples The number of latest frames every histogram keeps.
+     * @param enabled Whether the telemetry records from the start.
+     */
+    public FrameTelemetry(int samples, boolean enabled) {
+        this.samples = samples;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Registers a phase of the frame.
+     * @param name The name of the phase.
+     * @return The id of the phase, to pass to stop.
+     */
+    public int phase(String name) {
+        phaseNames.add(name);
+        phaseTimes.add(new RollingHistogram(samples));
+        return phaseNames.size() - 1;
+    }
+
+    /**
+     * Registers a value that is shown in the dump, such as the number of live rain drops.
+     * @param name The name of the value.
+     * @param gauge Supplies the value.
+     */
+    public void gauge(String name, IntSupplier gauge) {
+        gaugeNames.add(name);
+        gauges.add(gauge);
+    }
+
+    /**
+     * Sets the registry whose live GameObject counts are shown in the dump.
+     * @param objectCounts The counting registry.
+     */
+    public void setObjectCounts(CountingObjectRegistry objectCounts) {
+        this.objectCounts = objectCounts;
+    }
+
+    /**
+     * Starts timing a phase.
+     * @return The start time, or 0 if the telemetry is disabled.
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops timing a phase and records its time.
+     * @param phase The id of the phase.
+     * @param start The value start returned.
+     */
+    public void stop(int phase, long start) {
+        if (enabled && start != 0) {
+            phaseTimes.get(phase).record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Turns the telemetry on or off. Turning it on starts new histograms.
+     */
+    public void toggle() {
+        enabled = !enabled;
+        if (enabled) {
+            for (RollingHistogram histogram : phaseTimes) {
+                histogram.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the telemetry records.
+     * @return True if the telemetry is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prints the phase histograms in microseconds, the live GameObject counts and the gauges.
+     * @param out The stream to print to.
+     */
+    public void dump(PrintStream out) {
+        out.println("frame telemetry (" + (enabled ? "on" : "off") + ", last " + samples + " frames)");
+        for (int i = 0; i < phaseNames.size(); i++) {
+            RollingHistogram histogram = phaseTimes.get(i);
+            out.printf("  %-12s p50 %9.1f us  p99 %9.1f us  max %9.1f us  (%d frames)%n", phaseNames.get(i),
+                    histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3, histogram.max() / 1e3,
+                    histogram.getTotal());
+        }
+        if (objectCounts != null) {
+            StringBuilder layers = new StringBuilder("  layers:");
+            for (int layer : objectCounts.getLayers()) {
+                layers.append(' ').append(layer).append('=').append(objectCounts.countOfLayer(layer));
+            }
+            out.println(layers);
+            StringBuilder tags = new StringBuilder("  tags:");
+            for (String tag : objectCounts.getTags()) {
+                tags.append(' ').append(tag.isEmpty() ? "(none)" : tag).append('=')
+                        .append(objectCounts.countOfTag(tag));
+            }
+            out.println(tags);
+        }
+        StringBuilder values = new StringBuilder("  gauges:");
+        for (int i = 0; i < gaugeNames.size(); i++) {
+            values.append(' ').append(gaugeNames.get(i)).append('=').append(gauges.get(i).getAsInt());
+        }
+        out.println(values);
+    }
+}
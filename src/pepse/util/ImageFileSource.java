@@ -0,0 +1,82 @@
+package pepse.util;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+
+/**
+ * An image source that decodes image files itself. It keeps no state, so images can be decoded on several
+ * threads at once, which the image reader of the game window does not promise.
+ */
+public class ImageFileSource implements ImageSource {
+
+    /**
+     * Reads an image from the class path, or from the file system if it is not on the class path.
+     * @param imageFilePath The path of the image file.
+     * @param isTopLeftPixelTransparent Whether the color of the top left pixel is drawn as transparent.
+     * @return The image renderable.
+     */
+    @Override
+    public Renderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent) {
+        BufferedImage image = decode(imageFilePath);
+        return new ImageRenderable(isTopLeftPixelTransparent ? withoutBackground(image) : image);
+    }
+
+    /**
+     * Decodes an image file.
+     * @param imageFilePath The path of the image file.
+     * @return The decoded image.
+     * @throws UncheckedIOException If the file cannot be read.
+     */
+    public static BufferedImage decode(String imageFilePath) {
+        try (InputStream resource = ImageFileSource.class.getClassLoader().getResourceAsStream(imageFilePath)) {
+            BufferedImage image = resource != null ? ImageIO.read(resource) : ImageIO.read(new File(imageFilePath));
+            if (image == null) {
+                throw new IOException("unknown image format");
+            }
+            return image;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read image " + imageFilePath, e);
+        }
+    }
+
+    /**
+     * Returns when an image file was last changed.
+     * @param imageFilePath The path of the image file.
+     * @return The time of the last change in milliseconds, or 0 if it is unknown, for example inside a jar.
+     */
+    public static long lastModified(String imageFilePath) {
+        URL resource = ImageFileSource.class.getClassLoader().getResource(imageFilePath);
+        try {
+            File file = resource != null && "file".equals(resource.getProtocol()) ?
+                    new File(resource.toURI()) : new File(imageFilePath);
+            return file.lastModified();
+        } catch (URISyntaxException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Copies an image, making every pixel that has the color of the top left pixel transparent.
+     * @param image The image.
+     * @return The copy.
+     */
+    private static BufferedImage withoutBackground(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        int background = image.getRGB(0, 0);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int rgb = image.getRGB(x, y);
+                copy.setRGB(x, y, rgb == background ? 0 : rgb);
+            }
+        }
+        return copy;
+    }
+}
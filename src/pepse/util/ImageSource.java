@@ -0,0 +1,17 @@
+package pepse.util;
+
+import danogl.gui.rendering.Renderable;
+
+/**
+ * A source of image renderables, such as the image reader of the game window or a stand-in without a window.
+ */
+public interface ImageSource {
+
+    /**
+     * Reads an image.
+     * @param imageFilePath The path of the image file.
+     * @param isTopLeftPixelTransparent Whether the color of the top left pixel is drawn as transparent.
+     * @return The image renderable.
+     */
+    Renderable readImage(String imageFilePath, boolean isTopLeftPixelTransparent);
+}
@@ -0,0 +1,74 @@
+package pepse.util;
+
+import danogl.util.Vector2;
+import java.util.Arrays;
+
+/**
+ * A key input that samples another input once per frame, records the sample, and answers from it for the
+ * rest of the frame. Recording costs a float and a byte per frame, in arrays that grow by doubling.
+ */
+public class InputRecorder implements KeyInput {
+    private static final int INITIAL_FRAMES = 4096;
+
+    private final KeyInput input;
+    private final int seed;
+    private final Vector2 windowDimensions;
+    private float[] frameTimes = new float[INITIAL_FRAMES];
+    private byte[] keyMasks = new byte[INITIAL_FRAMES];
+    private int frames;
+    private byte currentMask;
+
+    /**
+     * Creates an InputRecorder object.
+     * @param input The input that is recorded.
+     * @param seed The seed of the world the input plays.
+     * @param windowDimensions The dimensions of the window the input plays in.
+     */
+    public InputRecorder(KeyInput input, int seed, Vector2 windowDimensions) {
+        this.input = input;
+        this.seed = seed;
+        this.windowDimensions = windowDimensions;
+    }
+
+    /**
+     * Samples the input for a new frame and records it. Called once per frame, before anything reads the input.
+     * @param deltaTime The time of the frame.
+     */
+    public synchronized void beginFrame(float deltaTime) {
+        if (frames == frameTimes.length) {
+            frameTimes = Arrays.copyOf(frameTimes, frames * 2);
+            keyMasks = Arrays.copyOf(keyMasks, frames * 2);
+        }
+        currentMask = InputRecording.maskOf(input);
+        frameTimes[frames] = deltaTime;
+        keyMasks[frames] = currentMask;
+        frames++;
+    }
+
+    /**
+     * Returns whether a key was pressed when the frame began.
+     * @param keyCode The code of the key.
+     * @return True if the key is recorded and was pressed.
+     */
+    @Override
+    public boolean isKeyPressed(int keyCode) {
+        return InputRecording.isPressed(currentMask, keyCode);
+    }
+
+    /**
+     * Copies the frames recorded so far.
+     * @return The recording.
+     */
+    public synchronized InputRecording toRecording() {
+        return new InputRecording(seed, windowDimensions, Arrays.copyOf(frameTimes, frames),
+                Arrays.copyOf(keyMasks, frames));
+    }
+
+    /**
+     * Gets the number of recorded frames.
+     * @return The number of frames.
+     */
+    public synchronized int getFrameCount() {
+        return frames;
+    }
+}
@@ -0,0 +1,172 @@
+package pepse.util;
+
+import danogl.util.Vector2;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The input of a session, one entry per frame: the frame time and a bitmask of the keys that were pressed,
+ * together with the seed of the world and the size of the window. Replaying it through the same world in a
+ * window of the same size repeats the session.
+ * The file is big-endian: magic, version, seed, window width and height and frame count, then a float and a
+ * byte per frame.
+ */
+public class InputRecording {
+    /** The keys that are recorded; bit i of a frame mask is the key at index i. */
+    public static final int[] RECORDED_KEYS = {KeyEvent.VK_LEFT, KeyEvent.VK_RIGHT, KeyEvent.VK_SPACE};
+
+    private static final int MAGIC = 0x50455052; // "PEPR"
+    private static final short VERSION = 2;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES + 2 * Integer.BYTES
+            + Integer.BYTES;
+    private static final int FRAME_BYTES = Float.BYTES + Byte.BYTES;
+
+    private final int seed;
+    private final Vector2 windowDimensions;
+    private final float[] frameTimes;
+    private final byte[] keyMasks;
+
+    /**
+     * Creates an InputRecording object.
+     * @param seed The seed of the world.
+     * @param windowDimensions The dimensions of the window the session was played in.
+     * @param frameTimes The time of every frame.
+     * @param keyMasks The keys pressed in every frame, as masks over RECORDED_KEYS.
+     */
+    public InputRecording(int seed, Vector2 windowDimensions, float[] frameTimes, byte[] keyMasks) {
+        this.seed = seed;
+        this.windowDimensions = windowDimensions;
+        this.frameTimes = frameTimes;
+        this.keyMasks = keyMasks;
+    }
+
+    /**
+     * Returns the mask of the recorded keys that an input presses.
+     * @param input The input.
+     * @return The mask of the pressed keys.
+     */
+    public static byte maskOf(KeyInput input) {
+        int mask = 0;
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (input.isKeyPressed(RECORDED_KEYS[i])) {
+                mask |= 1 << i;
+            }
+        }
+        return (byte) mask;
+    }
+
+    /**
+     * Returns whether a mask presses a key.
+     * @param mask The mask of the pressed keys.
+     * @param keyCode The code of the key.
+     * @return True if the key is recorded and pressed in the mask.
+     */
+    public static boolean isPressed(byte mask, int keyCode) {
+        for (int i = 0; i < RECORDED_KEYS.length; i++) {
+            if (RECORDED_KEYS[i] == keyCode) {
+                return (mask & (1 << i)) != 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the recording to a file.
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + frameTimes.length * FRAME_BYTES);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(seed);
+        buffer.putInt((int) windowDimensions.x()).putInt((int) windowDimensions.y());
+        buffer.putInt(frameTimes.length);
+        for (int i = 0; i < frameTimes.length; i++) {
+            buffer.putFloat(frameTimes[i]).put(keyMasks[i]);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a recording from a file.
+     * @param path The path of the file.
+     * @return The recording.
+     * @throws IOException If the file cannot be read or does not hold a recording.
+     */
+    public static InputRecording read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+                throw new IOException("not an input recording " + path);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("unsupported input recording version " + version);
+            }
+            int seed = buffer.getInt();
+            Vector2 windowDimensions = new Vector2(buffer.getInt(), buffer.getInt());
+            int frames = buffer.getInt();
+            if (frames < 0 || buffer.remaining() < (long) frames * FRAME_BYTES) {
+                throw new IOException("truncated input recording " + path);
+            }
+            float[] frameTimes = new float[frames];
+            byte[] keyMasks = new byte[frames];
+            for (int i = 0; i < frames; i++) {
+                frameTimes[i] = buffer.getFloat();
+                keyMasks[i] = buffer.get();
+            }
+            return new InputRecording(seed, windowDimensions, frameTimes, keyMasks);
+        }
+    }
+
+    /**
+     * Gets the seed of the world.
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the dimensions of the window the session was played in.
+     * @return The window dimensions.
+     */
+    public Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    /**
+     * Gets the number of recorded frames.
+     * @return The number of frames.
+     */
+    public int getFrameCount() {
+        return frameTimes.length;
+    }
+
+    /**
+     * Gets the time of a frame.
+     * @param frame The index of the frame.
+     * @return The frame time in seconds.
+     */
+    public float getFrameTime(int frame) {
+        return frameTimes[frame];
+    }
+
+    /**
+     * Gets the keys pressed in a frame.
+     * @param frame The index of the frame.
+     * @return The mask of the pressed keys, over RECORDED_KEYS.
+     */
+    public byte getKeyMask(int frame) {
+        return keyMasks[frame];
+    }
+}
@@ -0,0 +1,14 @@
+package pepse.util;
+
+/**
+ * A source of key presses, such as the keyboard of the game window or a scripted input.
+ */
+public interface KeyInput {
+
+    /**
+     * Returns whether a key is pressed.
+     * @param keyCode The code of the key, as in java.awt.event.KeyEvent.
+     * @return True if the key is pressed.
+     */
+    boolean isKeyPressed(int keyCode);
+}
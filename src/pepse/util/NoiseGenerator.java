@@ -6,6 +6,7 @@ public class NoiseGenerator {
     private int[] p;
     private int[] permutation;
     private double startPoint;
+    private double[] octaves;
 
     /**
      * The constructor of the NoiseGenerator class.
@@ -55,6 +56,17 @@ public class NoiseGenerator {
             p[256 + i] = p[i] = permutation[i];
         }
 
+        // The octave schedule only depends on the start point, so it is computed once.
+        int octaveCount = 0;
+        for (double currentPoint = startPoint; currentPoint >= 1; currentPoint /= 2.0) {
+            octaveCount++;
+        }
+        this.octaves = new double[octaveCount];
+        double currentPoint = startPoint;
+        for (int i = 0; i < octaveCount; i++) {
+            octaves[i] = currentPoint;
+            currentPoint /= 2.0;
+        }
     }
 
     /**
@@ -73,16 +85,48 @@ public class NoiseGenerator {
      */
     public double noise(double x, double factor) {
         double value = 0.0;
-        double currentPoint = startPoint;
 
-        while (currentPoint >= 1) {
+        for (double currentPoint : octaves) {
             value += smoothNoise((x / currentPoint), 0, 0) * currentPoint;
-            currentPoint /= 2.0;
         }
 
         return value * factor / startPoint;
     }
 
+    /**
+     * Fills an array with the noise of evenly spaced x coordinates, without allocating.
+     * The i-th value is bit-identical to noise(startX + i * step, factor).
+     *
+     * @param startX the first x to receive noise for.
+     * @param step the distance between two neighbouring x coordinates.
+     * @param count the number of x coordinates.
+     * @param factor describes how large the noise should be.
+     * @param out the array to write the noise into.
+     * @param offset the index in out of the noise of startX.
+     */
+    public void noise(double startX, double step, int count, double factor, double[] out, int offset) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = noise(startX + i * step, factor);
+        }
+    }
+
+    /**
+     * Fills an array with the noise of evenly spaced x coordinates, without allocating.
+     * The i-th value is bit-identical to (float) noise(startX + i * step, factor).
+     *
+     * @param startX the first x to receive noise for.
+     * @param step the distance between two neighbouring x coordinates.
+     * @param count the number of x coordinates.
+     * @param factor describes how large the noise should be.
+     * @param out the array to write the noise into.
+     * @param offset the index in out of the noise of startX.
+     */
+    public void noise(double startX, double step, int count, double factor, float[] out, int offset) {
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = (float) noise(startX + i * step, factor);
+        }
+    }
+
 
     private double smoothNoise(double x, double y, double z) {
         // Offset each coordinate by the seed value
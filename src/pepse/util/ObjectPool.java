@@ -0,0 +1,148 @@
+package pepse.util;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of reusable objects of a single type.
+ * The pool only stores and counts; resetting an object is up to the code that releases it.
+ * @param <T> The type of the pooled objects.
+ */
+public class ObjectPool<T> {
+    private final ArrayDeque<T> free;
+    private final Supplier<T> factory;
+    private int capacity;
+    private int inUse;
+    private int highWaterMark;
+    private long hits;
+    private long misses;
+    private long discards;
+
+    /**
+     * Creates an ObjectPool object.
+     * @param factory Creates a new object when the pool is empty.
+     * @param capacity The maximal number of free objects the pool keeps.
+     */
+    public ObjectPool(Supplier<T> factory, int capacity) {
+        this.factory = factory;
+        this.capacity = capacity;
+        this.free = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * Takes an object from the pool, or creates one if the pool is empty.
+     * @return An object that is not in use.
+     */
+    public T borrow() {
+        T object = free.pollFirst();
+        if (object != null) {
+            hits++;
+        } else {
+            misses++;
+            object = factory.get();
+        }
+        inUse++;
+        highWaterMark = Math.max(highWaterMark, inUse);
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool. If the pool is full the object is left for the garbage collector.
+     * @param object An object that was reset and is no longer used.
+     */
+    public void release(T object) {
+        inUse = Math.max(0, inUse - 1);
+        if (free.size() < capacity) {
+            free.addFirst(object);
+        } else {
+            discards++;
+        }
+    }
+
+    /**
+     * Sets the maximal number of free objects the pool keeps, dropping the free objects above it.
+     * @param capacity The new capacity.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+        while (free.size() > capacity) {
+            free.pollLast();
+            discards++;
+        }
+    }
+
+    /**
+     * Gets the maximal number of free objects the pool keeps.
+     * @return The capacity of the pool.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of free objects in the pool.
+     * @return The size of the pool.
+     */
+    public int getSize() {
+        return free.size();
+    }
+
+    /**
+     * Gets the number of borrowed objects that were not released yet.
+     * @return The number of objects in use.
+     */
+    public int getInUse() {
+        return inUse;
+    }
+
+    /**
+     * Gets the largest number of objects that were in use at the same time.
+     * @return The high-water mark of the pool.
+     */
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Gets the share of borrows that were served from the pool.
+     * @return The hit rate, between 0 and 1.
+     */
+    public double getHitRate() {
+        long borrows = hits + misses;
+        return borrows == 0 ? 0 : (double) hits / borrows;
+    }
+
+    /**
+     * Gets the number of borrows that were served from the pool.
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of borrows that had to create a new object.
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of released objects that did not fit in the pool.
+     * @return The number of discarded objects.
+     */
+    public long getDiscards() {
+        return discards;
+    }
+
+    /**
+     * Describes the state of the pool in one line.
+     * @return The statistics of the pool.
+     */
+    @Override
+    public String toString() {
+        return String.format("size=%d/%d inUse=%d highWater=%d hitRate=%.2f discards=%d",
+                free.size(), capacity, inUse, highWaterMark, getHitRate(), discards);
+    }
+}
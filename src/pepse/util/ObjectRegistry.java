@@ -0,0 +1,24 @@
+package pepse.util;
+
+import danogl.GameObject;
+
+/**
+ * The collection the GameObjects of the world are added to and removed from, by layer.
+ */
+public interface ObjectRegistry {
+
+    /**
+     * Adds a GameObject to a layer.
+     * @param gameObject The GameObject to add.
+     * @param layer The layer, as in danogl.collisions.Layer.
+     */
+    void add(GameObject gameObject, int layer);
+
+    /**
+     * Removes a GameObject from a layer.
+     * @param gameObject The GameObject to remove.
+     * @param layer The layer, as in danogl.collisions.Layer.
+     * @return True if the GameObject was in the layer.
+     */
+    boolean remove(GameObject gameObject, int layer);
+}
@@ -0,0 +1,78 @@
+package pepse.util;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the latest samples of a value in a ring buffer, and summarizes them as percentiles on demand.
+ * Recording a sample is a single array store; the summary sorts a copy of the buffer, so it is only meant
+ * for dumps.
+ */
+public class RollingHistogram {
+    private final long[] samples;
+    private int next;
+    private int size;
+    private long total;
+
+    /**
+     * Creates a RollingHistogram object.
+     * @param capacity The number of latest samples that are kept.
+     */
+    public RollingHistogram(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * Records a sample, replacing the oldest one once the buffer is full.
+     * @param sample The sample.
+     */
+    public void record(long sample) {
+        samples[next] = sample;
+        next = next + 1 == samples.length ? 0 : next + 1;
+        size = Math.min(size + 1, samples.length);
+        total++;
+    }
+
+    /**
+     * Returns a percentile of the kept samples.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The sample at the percentile, or 0 if there are no samples.
+     */
+    public long percentile(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+    /**
+     * Returns the largest kept sample.
+     * @return The largest sample, or 0 if there are no samples.
+     */
+    public long max() {
+        long max = 0;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of samples that were ever recorded.
+     * @return The number of samples.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Forgets every sample.
+     */
+    public void clear() {
+        next = 0;
+        size = 0;
+        total = 0;
+    }
+}
@@ -0,0 +1,44 @@
+package pepse.util;
+
+/**
+ * Stateless, counter-based pseudo-random numbers in the style of SplitMix64.
+ * A value is a pure function of a seed and a key, so asking for it allocates nothing, needs no shared
+ * state and gives the same answer on every thread and on every run.
+ */
+public final class SplitMix {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double UNIT_DOUBLE_SCALE = 0x1.0p-53;
+
+    private SplitMix() {
+    }
+
+    /**
+     * Scrambles the bits of a 64-bit value (the SplitMix64 finalizer).
+     * @param z The value to scramble.
+     * @return The scrambled value.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the pseudo-random 64-bit value of a key under a seed.
+     * @param seed The seed.
+     * @param key The key, for example a block column.
+     * @return The pseudo-random value.
+     */
+    public static long hash(long seed, long key) {
+        return mix(mix(seed) + (key + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Maps a pseudo-random 64-bit value to a double in [0, 1).
+     * @param hash The pseudo-random value.
+     * @return A double in [0, 1).
+     */
+    public static double unitDouble(long hash) {
+        return (hash >>> 11) * UNIT_DOUBLE_SCALE;
+    }
+}
@@ -0,0 +1,211 @@
+package pepse.util;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.Renderable;
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Many small images packed into a single image, with a table of the region of every frame.
+ * The renderable of a frame draws a sub-image that shares the pixels of the atlas, so a whole sprite set is one
+ * image in memory and one decode when the atlas is read back from its cache file.
+ * The cache is a PNG next to a text table. The table starts with an "atlas size crc" line that stamps the PNG
+ * it was written with, followed by one "name x y width height" line per frame.
+ */
+public class SpriteAtlas {
+    private static final String TABLE_SUFFIX = ".frames";
+    private static final String STAMP_PREFIX = "atlas";
+
+    private final BufferedImage image;
+    private final Map<String, Rectangle> frames;
+    private final Map<String, Renderable> renderables = new LinkedHashMap<>();
+
+    /**
+     * Creates a SpriteAtlas object.
+     * @param image The packed image.
+     * @param frames The region of every frame in the packed image, by frame name.
+     */
+    public SpriteAtlas(BufferedImage image, Map<String, Rectangle> frames) {
+        this.image = image;
+        this.frames = frames;
+        for (Map.Entry<String, Rectangle> frame : frames.entrySet()) {
+            Rectangle region = frame.getValue();
+            renderables.put(frame.getKey(), new ImageRenderable(
+                    image.getSubimage(region.x, region.y, region.width, region.height)));
+        }
+    }
+
+    /**
+     * Packs images into an atlas, in shelves of decreasing height.
+     * @param names The names of the frames.
+     * @param images The images of the frames, in the order of the names.
+     * @return The atlas.
+     */
+    public static SpriteAtlas pack(List<String> names, List<BufferedImage> images) {
+        Integer[] order = new Integer[images.size()];
+        long area = 0;
+        int maxWidth = 1;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            area += (long) images.get(i).getWidth() * images.get(i).getHeight();
+            maxWidth = Math.max(maxWidth, images.get(i).getWidth());
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> images.get(i).getHeight()).reversed());
+        int width = Math.max(maxWidth, Integer.highestOneBit((int) Math.ceil(Math.sqrt(area)) * 2 - 1));
+
+        // place the frames row by row, a new shelf starts when a frame does not fit in the current one
+        Map<String, Rectangle> frames = new LinkedHashMap<>();
+        Rectangle[] regions = new Rectangle[order.length];
+        int x = 0;
+        int shelfY = 0;
+        int shelfHeight = 0;
+        for (int i : order) {
+            BufferedImage frame = images.get(i);
+            if (x + frame.getWidth() > width) {
+                x = 0;
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+            }
+            regions[i] = new Rectangle(x, shelfY, frame.getWidth(), frame.getHeight());
+            x += frame.getWidth();
+            shelfHeight = Math.max(shelfHeight, frame.getHeight());
+        }
+        BufferedImage atlas = new BufferedImage(width, Math.max(1, shelfY + shelfHeight),
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+        for (int i = 0; i < regions.length; i++) {
+            graphics.drawImage(images.get(i), regions[i].x, regions[i].y, null);
+            frames.put(names.get(i), regions[i]);
+        }
+        graphics.dispose();
+        return new SpriteAtlas(atlas, frames);
+    }
+
+    /**
+     * Writes the atlas to its cache: the image and, next to it, the frame table. Both are written to temporary
+     * files first, so neither file is ever half written. The two files are moved one after the other, so the
+     * table stamps the size and checksum of its image, and a reader rejects a pair that does not belong together.
+     * @param imageFile The path of the image file.
+     * @throws IOException If the files cannot be written.
+     */
+    public void write(Path imageFile) throws IOException {
+        Path tableFile = tableFileOf(imageFile);
+        Path temporaryTable = tableFile.resolveSibling(tableFile.getFileName() + ".tmp");
+        Path temporaryImage = imageFile.resolveSibling(imageFile.getFileName() + ".tmp");
+        if (!ImageIO.write(image, "png", temporaryImage.toFile())) {
+            throw new IOException("no png writer");
+        }
+        List<String> table = new ArrayList<>(frames.size() + 1);
+        table.add(stampOf(Files.readAllBytes(temporaryImage)));
+        for (Map.Entry<String, Rectangle> frame : frames.entrySet()) {
+            Rectangle region = frame.getValue();
+            table.add(frame.getKey() + " " + region.x + " " + region.y + " " + region.width + " " + region.height);
+        }
+        Files.write(temporaryTable, table, StandardCharsets.UTF_8);
+        Files.move(temporaryImage, imageFile, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temporaryTable, tableFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads an atlas from its cache.
+     * @param imageFile The path of the image file; the frame table is read from next to it.
+     * @return The atlas.
+     * @throws IOException If the files cannot be read or do not match.
+     */
+    public static SpriteAtlas read(Path imageFile) throws IOException {
+        List<String> table = Files.readAllLines(tableFileOf(imageFile), StandardCharsets.UTF_8);
+        // the image is read once, and the bytes that were checked are the bytes that are decoded
+        byte[] imageBytes = Files.readAllBytes(imageFile);
+        if (table.isEmpty() || !table.get(0).equals(stampOf(imageBytes))) {
+            throw new IOException("frame table was not written with " + imageFile);
+        }
+        Map<String, Rectangle> frames = new LinkedHashMap<>();
+        for (String line : table.subList(1, table.size())) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != 5) {
+                throw new IOException("bad frame table line: " + line);
+            }
+            frames.put(fields[0], new Rectangle(Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Integer.parseInt(fields[3]), Integer.parseInt(fields[4])));
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        if (image == null) {
+            throw new IOException("unknown image format " + imageFile);
+        }
+        for (Rectangle region : frames.values()) {
+            if (region.x + region.width > image.getWidth() || region.y + region.height > image.getHeight()) {
+                throw new IOException("frame table does not match " + imageFile);
+            }
+        }
+        return new SpriteAtlas(image, frames);
+    }
+
+    /**
+     * Returns the stamp of an encoded atlas image: its size and its CRC-32.
+     * @param imageBytes The bytes of the image file.
+     * @return The first line of the frame table.
+     */
+    private static String stampOf(byte[] imageBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(imageBytes);
+        return STAMP_PREFIX + " " + imageBytes.length + " " + Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Returns the path of the frame table that belongs to an atlas image.
+     * @param imageFile The path of the image file.
+     * @return The path of the frame table.
+     */
+    private static Path tableFileOf(Path imageFile) {
+        return imageFile.resolveSibling(imageFile.getFileName() + TABLE_SUFFIX);
+    }
+
+    /**
+     * Returns whether the atlas has a frame.
+     * @param name The name of the frame.
+     * @return True if the atlas has the frame.
+     */
+    public boolean hasFrame(String name) {
+        return frames.containsKey(name);
+    }
+
+    /**
+     * Returns the renderable of a frame, which draws its region of the atlas.
+     * @param name The name of the frame.
+     * @return The renderable, or null if the atlas has no such frame.
+     */
+    public Renderable frame(String name) {
+        return renderables.get(name);
+    }
+
+    /**
+     * Gets the names of the frames.
+     * @return The names of the frames, in the order they were given.
+     */
+    public List<String> getFrameNames() {
+        return new ArrayList<>(frames.keySet());
+    }
+
+    /**
+     * Gets the packed image.
+     * @return The image of the atlas.
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,47 @@
+package pepse.util;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times the stages of the startup, from the creation of the timer to the first frame.
+ * Every mark ends a stage that started at the previous mark.
+ */
+public class StartupTimer {
+    private final long origin = System.nanoTime();
+    private final List<String> stageNames = new ArrayList<>();
+    private final List<Long> stageNanos = new ArrayList<>();
+    private long lastMark = origin;
+
+    /**
+     * Ends the current stage.
+     * @param stage The name of the stage that just ended.
+     */
+    public void mark(String stage) {
+        long now = System.nanoTime();
+        stageNames.add(stage);
+        stageNanos.add(now - lastMark);
+        lastMark = now;
+    }
+
+    /**
+     * Gets the time from the creation of the timer to the last mark.
+     * @return The total time in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return lastMark - origin;
+    }
+
+    /**
+     * Prints the time of every stage and the total.
+     * @param out The stream to print to.
+     * @param budgetMillis The time the startup should fit in, in milliseconds.
+     */
+    public void print(PrintStream out, long budgetMillis) {
+        out.printf("startup %.1f ms (budget %d ms)%n", getTotalNanos() / 1e6, budgetMillis);
+        for (int i = 0; i < stageNames.size(); i++) {
+            out.printf("  %-12s %8.1f ms%n", stageNames.get(i), stageNanos.get(i) / 1e6);
+        }
+    }
+}
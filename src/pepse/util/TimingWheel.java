@@ -0,0 +1,214 @@
+package pepse.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel: a ring of slots, each holding the timers that expire when the wheel turns to it.
+ * A timer that is further away than a turn of the wheel waits for the extra turns in its slot.
+ * The timers live in primitive arrays linked into a list per slot, so scheduling and cancelling are O(1) and
+ * allocate nothing until the arrays have to grow. A timer handle is valid until its timer fires or is cancelled.
+ * @param <T> The type of the payloads that are handed back when timers fire.
+ */
+public class TimingWheel<T> {
+    /** The handle of no timer. */
+    public static final int NO_TIMER = -1;
+    private static final int NONE = -1;
+
+    private final float tickTime;
+    private final int slotMask;
+    private final int[] heads;
+    private int[] next;
+    private int[] previous;
+    private int[] slots;
+    private int[] rounds;
+    private Object[] payloads;
+    private int freeHead = NONE;
+    private int used;
+    private int cursor;
+    private float elapsed;
+    private int pending;
+    private long scheduled;
+    private long fired;
+    private long cancelled;
+
+    /**
+     * Creates a TimingWheel object.
+     * @param slotCount The number of slots, rounded up to a power of two.
+     * @param tickTime The time the wheel takes to turn by one slot, which is the resolution of the timers.
+     * @param initialCapacity The number of timers the arrays hold before they grow.
+     */
+    public TimingWheel(int slotCount, float tickTime, int initialCapacity) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount - 1) * 2);
+        this.tickTime = tickTime;
+        this.slotMask = size - 1;
+        this.heads = new int[size];
+        Arrays.fill(heads, NONE);
+        int capacity = Math.max(1, initialCapacity);
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.slots = new int[capacity];
+        this.rounds = new int[capacity];
+        this.payloads = new Object[capacity];
+    }
+
+    /**
+     * Schedules a timer.
+     * @param delay The time until the timer fires, rounded up to whole ticks and at least one tick.
+     * @param payload The payload handed back when the timer fires.
+     * @return The handle of the timer.
+     */
+    public int schedule(float delay, T payload) {
+        int ticks = Math.max(1, (int) Math.ceil((delay + elapsed) / tickTime));
+        int timer = allocate();
+        int slot = (cursor + ticks) & slotMask;
+        slots[timer] = slot;
+        rounds[timer] = (ticks - 1) / heads.length;
+        payloads[timer] = payload;
+        // new timers go to the head of the list, so a slot that is firing never reaches them
+        previous[timer] = NONE;
+        next[timer] = heads[slot];
+        if (heads[slot] != NONE) {
+            previous[heads[slot]] = timer;
+        }
+        heads[slot] = timer;
+        pending++;
+        scheduled++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer. Cancelling a timer that already fired or was cancelled does nothing.
+     * @param timer The handle of the timer.
+     * @return True if the timer was pending.
+     */
+    public boolean cancel(int timer) {
+        if (timer < 0 || timer >= used || slots[timer] == NONE) {
+            return false;
+        }
+        unlink(timer);
+        free(timer);
+        pending--;
+        cancelled++;
+        return true;
+    }
+
+    /**
+     * Turns the wheel by the time that passed and fires the timers of every slot it reaches.
+     * @param deltaTime The time that passed.
+     * @param onFire Receives the payload of every fired timer. It may schedule new timers, but must not cancel
+     *               other timers.
+     */
+    @SuppressWarnings("unchecked")
+    public void advance(float deltaTime, Consumer<T> onFire) {
+        elapsed += deltaTime;
+        while (elapsed >= tickTime) {
+            elapsed -= tickTime;
+            cursor = (cursor + 1) & slotMask;
+            int timer = heads[cursor];
+            while (timer != NONE) {
+                int following = next[timer];
+                if (rounds[timer] > 0) {
+                    rounds[timer]--;
+                } else {
+                    T payload = (T) payloads[timer];
+                    unlink(timer);
+                    free(timer);
+                    pending--;
+                    fired++;
+                    onFire.accept(payload);
+                }
+                timer = following;
+            }
+        }
+    }
+
+    /**
+     * Takes a timer from the free list, growing the arrays if there is none.
+     * @return The index of the timer.
+     */
+    private int allocate() {
+        if (freeHead != NONE) {
+            int timer = freeHead;
+            freeHead = next[timer];
+            return timer;
+        }
+        if (used == next.length) {
+            int capacity = used * 2;
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            slots = Arrays.copyOf(slots, capacity);
+            rounds = Arrays.copyOf(rounds, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+        }
+        return used++;
+    }
+
+    /**
+     * Removes a timer from the list of its slot.
+     * @param timer The index of the timer.
+     */
+    private void unlink(int timer) {
+        if (previous[timer] != NONE) {
+            next[previous[timer]] = next[timer];
+        } else {
+            heads[slots[timer]] = next[timer];
+        }
+        if (next[timer] != NONE) {
+            previous[next[timer]] = previous[timer];
+        }
+    }
+
+    /**
+     * Puts a timer on the free list.
+     * @param timer The index of the timer.
+     */
+    private void free(int timer) {
+        slots[timer] = NONE;
+        payloads[timer] = null;
+        next[timer] = freeHead;
+        freeHead = timer;
+    }
+
+    /**
+     * Gets the number of timers that did not fire yet.
+     * @return The number of pending timers.
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Gets the number of timers that were scheduled.
+     * @return The number of scheduled timers.
+     */
+    public long getScheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Gets the number of timers that fired.
+     * @return The number of fired timers.
+     */
+    public long getFired() {
+        return fired;
+    }
+
+    /**
+     * Gets the number of timers that were cancelled before they fired.
+     * @return The number of cancelled timers.
+     */
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Describes the state of the wheel in one line.
+     * @return The statistics of the wheel.
+     */
+    @Override
+    public String toString() {
+        return String.format("pending=%d scheduled=%d fired=%d cancelled=%d", pending, scheduled, fired,
+                cancelled);
+    }
+}
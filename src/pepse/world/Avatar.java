@@ -3,11 +3,11 @@ package pepse.world;
 import static pepse.world.Constants.*;
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.gui.ImageReader;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.AnimationRenderable;
-import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.FixedTimestep;
+import pepse.util.ImageSource;
+import pepse.util.KeyInput;
 import java.awt.event.KeyEvent;
 
 /**
@@ -18,32 +18,41 @@ import java.awt.event.KeyEvent;
  */
 public class Avatar extends GameObject {
 
-    private final UserInputListener inputListener;
+    private final KeyInput inputListener;
     private static float avatarEnergy = MAX_ENERGY;
-    private final Renderable[] renderableIdle = new Renderable[4];
-    private final Renderable[] renderableJump = new Renderable[4];
-    private final Renderable[] renderableRun = new Renderable[6];
     private static boolean isJumping = false;
     private static boolean isMovingRight = false;
     private static boolean isMovingLeft = false;
+    private static int startedJumps = 0;
     private AnimationRenderable animationIdle;
     private AnimationRenderable animationJump;
     private AnimationRenderable animationRun;
+    private final FixedTimestep simulation = new FixedTimestep(SIMULATION_RATE, MAX_SIMULATION_STEPS);
 
     /**
      * Creates an avatar object.
      * @param topLeftCorner the top left corner coordinates of the avatar
-     * @param inputListener the input listener to listen for key presses
-     * @param imageReader the image reader
+     * @param inputListener the input to listen for key presses
+     * @param imageReader the source of the avatar images
      */
-    public Avatar(Vector2 topLeftCorner, UserInputListener inputListener, ImageReader imageReader) {
+    public Avatar(Vector2 topLeftCorner, KeyInput inputListener, ImageSource imageReader) {
+        this(topLeftCorner, inputListener, AvatarSprites.load(imageReader));
+    }
+
+    /**
+     * Creates an avatar object from images that were already read.
+     * @param topLeftCorner the top left corner coordinates of the avatar
+     * @param inputListener the input to listen for key presses
+     * @param sprites the images of the avatar
+     */
+    public Avatar(Vector2 topLeftCorner, KeyInput inputListener, AvatarSprites sprites) {
         super(topLeftCorner,
                 Vector2.ONES.mult(AVATAR_SIZE),
-                imageReader.readImage(AVATAR_IMAGE_PATH, false));
+                sprites.getStill());
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         transform().setAccelerationY(GRAVITY);
         this.inputListener = inputListener;
-        setRenderable(imageReader);
+        setRenderable(sprites);
     }
 
     /**
@@ -67,21 +76,12 @@ public class Avatar extends GameObject {
 
     /**
      * Sets the renderable objects for the avatar.
-     * @param imageReader the image reader
+     * @param sprites the images of the avatar
      */
-    private void setRenderable(ImageReader imageReader) {
-        for (int i = 0; i < renderableIdle.length; i++) {
-            renderableIdle[i] = imageReader.readImage("assets/idle_" + i + ".png", false);
-        }
-        animationIdle = new AnimationRenderable(renderableIdle, ANIMATION_SPEED);
-        for (int i = 0; i < renderableJump.length; i++) {
-            renderableJump[i] = imageReader.readImage("assets/jump_" + i + ".png", false);
-        }
-        animationJump = new AnimationRenderable(renderableJump, ANIMATION_SPEED);
-        for (int i = 0; i < renderableRun.length; i++) {
-            renderableRun[i] = imageReader.readImage("assets/run_" + i + ".png", false);
-        }
-        animationRun = new AnimationRenderable(renderableRun, ANIMATION_SPEED);
+    private void setRenderable(AvatarSprites sprites) {
+        animationIdle = new AnimationRenderable(sprites.getIdle(), ANIMATION_SPEED);
+        animationJump = new AnimationRenderable(sprites.getJump(), ANIMATION_SPEED);
+        animationRun = new AnimationRenderable(sprites.getRun(), ANIMATION_SPEED);
     }
 
     /**
@@ -92,6 +92,22 @@ public class Avatar extends GameObject {
         return (int) avatarEnergy;
     }
 
+    /**
+     * Gets the avatar's exact energy, including the fraction the counter does not show.
+     * @return the avatar's energy
+     */
+    public static float getExactEnergy() {
+        return avatarEnergy;
+    }
+
+    /**
+     * Sets the avatar's energy, used when a saved world is resumed.
+     * @param energy the new energy, clamped to the range of the energy
+     */
+    public static void setEnergy(float energy) {
+        avatarEnergy = Math.max(0, Math.min(MAX_ENERGY, energy));
+    }
+
     /**
      * Gets whether the avatar is jumping.
      * @return whether the avatar is jumping
@@ -100,6 +116,19 @@ public class Avatar extends GameObject {
         return isJumping;
     }
 
+    /**
+     * Takes a jump that started since the last call. Every jump is taken once, however many simulation steps
+     * ran in the frame it started.
+     * @return whether a jump was taken
+     */
+    public static boolean consumeJump() {
+        if (startedJumps == 0) {
+            return false;
+        }
+        startedJumps--;
+        return true;
+    }
+
     /**
      * Gets whether the avatar is moving sideways.
      * @return whether the avatar is moving sideways
@@ -121,11 +150,14 @@ public class Avatar extends GameObject {
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
-        resetMovementFlags();
-        float xVel = handleHorizontalMovement();
-        transform().setVelocityX(xVel);
-        handleJump();
-        handleIdle();
+        // the input and the energy run in fixed steps, so the energy changes at the same rate at any frame rate
+        for (int steps = simulation.advance(deltaTime); steps > 0; steps--) {
+            resetMovementFlags();
+            float xVel = handleHorizontalMovement();
+            transform().setVelocityX(xVel);
+            handleJump();
+            handleIdle();
+        }
     }
 
     /**
@@ -171,6 +203,7 @@ public class Avatar extends GameObject {
                 renderer().setRenderable(animationJump);
                 transform().setVelocityY(VELOCITY_Y);
                 isJumping = true;
+                startedJumps++;
             }
         }
     }
@@ -0,0 +1,167 @@
+package pepse.world;
+
+import static pepse.world.Constants.*;
+import danogl.gui.rendering.Renderable;
+import pepse.util.ImageSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The images of the avatar: the still image and the frames of the idle, jump and run animations.
+ * The images can be decoded on other threads while the rest of the world is built.
+ */
+public class AvatarSprites {
+    private static final int IDLE_FRAMES = 4;
+    private static final int JUMP_FRAMES = 4;
+    private static final int RUN_FRAMES = 6;
+
+    private final Renderable still;
+    private final Renderable[] idle;
+    private final Renderable[] jump;
+    private final Renderable[] run;
+
+    /**
+     * Creates an AvatarSprites object.
+     * @param still The still image of the avatar.
+     * @param idle The frames of the idle animation.
+     * @param jump The frames of the jump animation.
+     * @param run The frames of the run animation.
+     */
+    private AvatarSprites(Renderable still, Renderable[] idle, Renderable[] jump, Renderable[] run) {
+        this.still = still;
+        this.idle = idle;
+        this.jump = jump;
+        this.run = run;
+    }
+
+    /**
+     * Returns the paths of every image of the avatar, for example to pack them into a sprite atlas.
+     * @return The paths of the images.
+     */
+    public static List<String> imagePaths() {
+        List<String> paths = new ArrayList<>();
+        paths.add(AVATAR_IMAGE_PATH);
+        addFramePaths(paths, "idle", IDLE_FRAMES);
+        addFramePaths(paths, "jump", JUMP_FRAMES);
+        addFramePaths(paths, "run", RUN_FRAMES);
+        // the still image is one of the frames
+        return new ArrayList<>(new LinkedHashSet<>(paths));
+    }
+
+    /**
+     * Adds the paths of the frames of an animation to a list.
+     * @param paths The list.
+     * @param animation The name of the animation, which prefixes its image files.
+     * @param frames The number of frames.
+     */
+    private static void addFramePaths(List<String> paths, String animation, int frames) {
+        for (int i = 0; i < frames; i++) {
+            paths.add(framePath(animation, i));
+        }
+    }
+
+    /**
+     * Returns the path of a frame of an animation.
+     * @param animation The name of the animation.
+     * @param frame The index of the frame.
+     * @return The path of the image of the frame.
+     */
+    private static String framePath(String animation, int frame) {
+        return "assets/" + animation + "_" + frame + ".png";
+    }
+
+    /**
+     * Reads every image of the avatar on the calling thread.
+     * @param imageSource The source of the images.
+     * @return The images of the avatar.
+     */
+    public static AvatarSprites load(ImageSource imageSource) {
+        return loadAsync(imageSource, Runnable::run).join();
+    }
+
+    /**
+     * Reads every image of the avatar as a separate task, so the images are decoded in parallel.
+     * @param imageSource The source of the images, which must allow reads from several threads at once.
+     * @param executor The executor that runs the reads.
+     * @return A future that completes with the images of the avatar.
+     */
+    public static CompletableFuture<AvatarSprites> loadAsync(ImageSource imageSource, Executor executor) {
+        CompletableFuture<Renderable> still = CompletableFuture.supplyAsync(
+                () -> imageSource.readImage(AVATAR_IMAGE_PATH, false), executor);
+        List<CompletableFuture<Renderable>> idle = readFrames(imageSource, "idle", IDLE_FRAMES, executor);
+        List<CompletableFuture<Renderable>> jump = readFrames(imageSource, "jump", JUMP_FRAMES, executor);
+        List<CompletableFuture<Renderable>> run = readFrames(imageSource, "run", RUN_FRAMES, executor);
+        List<CompletableFuture<Renderable>> all = new ArrayList<>(idle);
+        all.add(still);
+        all.addAll(jump);
+        all.addAll(run);
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> new AvatarSprites(still.join(), join(idle), join(jump), join(run)));
+    }
+
+    /**
+     * Starts reading the frames of an animation.
+     * @param imageSource The source of the images.
+     * @param animation The name of the animation, which prefixes its image files.
+     * @param frames The number of frames.
+     * @param executor The executor that runs the reads.
+     * @return The futures of the frames, in order.
+     */
+    private static List<CompletableFuture<Renderable>> readFrames(ImageSource imageSource, String animation,
+                                                                  int frames, Executor executor) {
+        List<CompletableFuture<Renderable>> futures = new ArrayList<>(frames);
+        for (int i = 0; i < frames; i++) {
+            String path = framePath(animation, i);
+            futures.add(CompletableFuture.supplyAsync(() -> imageSource.readImage(path, false), executor));
+        }
+        return futures;
+    }
+
+    /**
+     * Collects the frames of completed futures.
+     * @param futures The futures of the frames.
+     * @return The frames.
+     */
+    private static Renderable[] join(List<CompletableFuture<Renderable>> futures) {
+        Renderable[] frames = new Renderable[futures.size()];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = futures.get(i).join();
+        }
+        return frames;
+    }
+
+    /**
+     * Gets the still image of the avatar.
+     * @return The still image.
+     */
+    public Renderable getStill() {
+        return still;
+    }
+
+    /**
+     * Gets the frames of the idle animation.
+     * @return The idle frames.
+     */
+    public Renderable[] getIdle() {
+        return idle;
+    }
+
+    /**
+     * Gets the frames of the jump animation.
+     * @return The jump frames.
+     */
+    public Renderable[] getJump() {
+        return jump;
+    }
+
+    /**
+     * Gets the frames of the run animation.
+     * @return The run frames.
+     */
+    public Renderable[] getRun() {
+        return run;
+    }
+}
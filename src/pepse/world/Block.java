@@ -1,12 +1,20 @@
 package pepse.world;
 
+import static pepse.world.Constants.*;
 import danogl.GameObject;
+import danogl.components.Component;
+import danogl.components.CoordinateSpace;
 import danogl.components.GameObjectPhysics;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.ObjectPool;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * A class that creates a block GameObject.
+ * The blocks of the world are borrowed from a shared pool with obtain, and given back with release
+ * once they were removed from the game.
  */
 public class Block extends GameObject {
 
@@ -15,14 +23,151 @@ public class Block extends GameObject {
      */
     public static final int SIZE = 30;
 
+    private static final Vector2 BLOCK_DIMENSIONS = Vector2.ONES.mult(SIZE);
+    private static final ObjectPool<Block> POOL = new ObjectPool<>(() -> new Block(Vector2.ZERO, null),
+            Integer.getInteger("pepse.blockPoolCapacity", BLOCK_POOL_CAPACITY));
+
+    private final boolean constructed;
+    private List<Component> addedComponents;
+    private boolean dormant;
+
     /**
      * Creates a block GameObject, which is a rectangle with a specified renderable.
      * @param topLeftCorner The top left corner of the block.
      * @param renderable The renderable of the block.
      */
     public Block(Vector2 topLeftCorner, Renderable renderable) {
-        super(topLeftCorner, Vector2.ONES.mult(SIZE), renderable);
+        this(topLeftCorner, BLOCK_DIMENSIONS, renderable);
+    }
+
+    /**
+     * Creates a block GameObject with custom dimensions, used for blocks that merge several cells.
+     * @param topLeftCorner The top left corner of the block.
+     * @param dimensions The dimensions of the block.
+     * @param renderable The renderable of the block.
+     */
+    public Block(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
         physics().preventIntersectionsFromDirection(Vector2.ZERO);
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
+        constructed = true;
+    }
+
+    /**
+     * Borrows a block from the pool and places it.
+     * @param topLeftCorner The top left corner of the block.
+     * @param renderable The renderable of the block.
+     * @return A block that is ready to be added to the game.
+     */
+    public static Block obtain(Vector2 topLeftCorner, Renderable renderable) {
+        return obtain(topLeftCorner, BLOCK_DIMENSIONS, renderable);
+    }
+
+    /**
+     * Borrows a block with custom dimensions from the pool and places it.
+     * @param topLeftCorner The top left corner of the block.
+     * @param dimensions The dimensions of the block.
+     * @param renderable The renderable of the block.
+     * @return A block that is ready to be added to the game.
+     */
+    public static Block obtain(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        Block block = POOL.borrow();
+        block.setDimensions(dimensions);
+        block.setTopLeftCorner(topLeftCorner);
+        block.renderer().setRenderable(renderable);
+        return block;
+    }
+
+    /**
+     * Resets the block and gives it back to the pool. The block must already be removed from the game,
+     * and must not be used after this call.
+     */
+    public void release() {
+        if (addedComponents != null) {
+            for (Component component : addedComponents) {
+                super.removeComponent(component);
+            }
+            addedComponents.clear();
+        }
+        renderer().setRenderable(null);
+        renderer().setOpaqueness(1);
+        renderer().setRenderableAngle(0);
+        setCoordinateSpace(CoordinateSpace.WORLD_COORDINATES);
+        setVelocity(Vector2.ZERO);
+        setTag("");
+        dormant = false;
+        POOL.release(this);
+    }
+
+    /**
+     * Suspends or resumes the block. A dormant block runs none of its components and collides with nothing.
+     * @param dormant Whether the block is dormant.
+     */
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
+    }
+
+    /**
+     * Returns whether the block is dormant.
+     * @return True if the block is dormant.
+     */
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    /**
+     * Updates the block, unless it is dormant.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (!dormant) {
+            super.update(deltaTime);
+        }
+    }
+
+    /**
+     * Returns whether the block collides with another GameObject; a dormant block collides with nothing.
+     * @param other The other GameObject.
+     * @return True if the two should collide.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return !dormant && super.shouldCollideWith(other);
+    }
+
+    /**
+     * Gets the pool the blocks are borrowed from.
+     * @return The block pool.
+     */
+    public static ObjectPool<Block> getPool() {
+        return POOL;
+    }
+
+    /**
+     * Adds a component to the block, and remembers it so release can remove it.
+     * @param component The component to add.
+     */
+    @Override
+    public void addComponent(Component component) {
+        super.addComponent(component);
+        if (constructed) {
+            if (addedComponents == null) {
+                addedComponents = new ArrayList<>();
+            }
+            addedComponents.add(component);
+        }
+    }
+
+    /**
+     * Removes a component from the block.
+     * @param component The component to remove.
+     */
+    @Override
+    public void removeComponent(Component component) {
+        super.removeComponent(component);
+        if (addedComponents != null) {
+            addedComponents.remove(component);
+        }
     }
 }
@@ -0,0 +1,80 @@
+package pepse.world;
+
+import pepse.world.trees.TreeBlueprint;
+
+/**
+ * The precomputed data of a terrain chunk: the ground height of every column and the blueprints
+ * of the trees that stand on it. A layout holds no GameObjects, so it can be built on any thread.
+ */
+public class ChunkLayout {
+    private final int chunkIndex;
+    private final int firstColumn;
+    private final int minX;
+    private final int maxX;
+    private final float[] heights;
+    private final TreeBlueprint[] trees;
+
+    /**
+     * Creates a ChunkLayout object.
+     * @param chunkIndex The index of the chunk.
+     * @param firstColumn The index of the first block column of the chunk.
+     * @param heights The ground height of every column of the chunk.
+     * @param trees The blueprints of the trees of the chunk, in increasing trunk order.
+     */
+    public ChunkLayout(int chunkIndex, int firstColumn, float[] heights, TreeBlueprint[] trees) {
+        this.chunkIndex = chunkIndex;
+        this.firstColumn = firstColumn;
+        this.minX = firstColumn * Block.SIZE;
+        this.maxX = minX + heights.length * Block.SIZE;
+        this.heights = heights;
+        this.trees = trees;
+    }
+
+    /**
+     * Gets the index of the chunk.
+     * @return The index of the chunk.
+     */
+    public int getChunkIndex() {
+        return chunkIndex;
+    }
+
+    /**
+     * Gets the index of the first block column of the chunk.
+     * @return The index of the first block column.
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Gets the x-coordinate of the left edge of the chunk.
+     * @return The x-coordinate of the left edge of the chunk.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Gets the x-coordinate of the right edge of the chunk (exclusive).
+     * @return The x-coordinate of the right edge of the chunk.
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Gets the ground height of every column of the chunk.
+     * @return The ground heights.
+     */
+    public float[] getHeights() {
+        return heights;
+    }
+
+    /**
+     * Gets the blueprints of the trees of the chunk.
+     * @return The blueprints of the trees, in increasing trunk order.
+     */
+    public TreeBlueprint[] getTrees() {
+        return trees;
+    }
+}
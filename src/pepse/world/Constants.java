@@ -1,6 +1,7 @@
 package pepse.world;
 
 import java.awt.*;
+import java.awt.event.KeyEvent;
 import java.util.List;
 
 public class Constants {
@@ -11,6 +12,7 @@ public class Constants {
         public static final double DROP_CHANCE = 0.2;
         public static final int DROP_DIMENSION_SIZE = 20;
         public static final int DROP_ARRAY_SIZE = 6;
+        public static final int RAIN_CAPACITY = 512;
         public static final int FADE_TRANSITION_TIME = 2;
         public static final float FADE_INIT_VALUE = 0.8F;
         public static final float FADE_FINAL_VALUE = 0F;
@@ -25,6 +27,25 @@ public class Constants {
                 List.of(0, 0, 0, 0, 0, 0)
         );
         public static final int CLOUD_WIDTH = CLOUD_SHAPE.get(0).size() * Block.SIZE;
+        public static final List<List<List<Integer>>> CLOUD_SHAPES = List.of(
+                CLOUD_SHAPE,
+                List.of(
+                        List.of(0, 0, 1, 1, 0, 0, 0, 0),
+                        List.of(0, 1, 1, 1, 1, 0, 1, 0),
+                        List.of(1, 1, 1, 1, 1, 1, 1, 1),
+                        List.of(0, 1, 1, 1, 1, 1, 1, 0)
+                ),
+                List.of(
+                        List.of(0, 1, 0, 0),
+                        List.of(1, 1, 1, 0),
+                        List.of(1, 1, 1, 1)
+                )
+        );
+        public static final int CLOUD_COUNT = 4;
+        public static final int CLOUD_PALETTE_SIZE = 8;
+        public static final float CLOUD_MIN_SPEED_FACTOR = 0.6f;
+        public static final float CLOUD_MAX_SPEED_FACTOR = 1.4f;
+        public static final float CLOUD_ALTITUDE_RANGE = 150;
 
         // night constants
         public static final Color BASIC_NIGHT_COLOR = Color.decode("#000000");
@@ -54,8 +75,14 @@ public class Constants {
         public final static float ANGLE_OSCILLATION_FINAL_VALUE = 15f;
         public final static float WIDTH_OSCILLATION_INIT_VALUE = 0.9f;
         public final static float WIDTH_OSCILLATION_FINAL_VALUE = 1.1f;
+        public final static int WIND_WIDTH_STEPS = 32;
+        // a baked canopy sways as one image instead of leaf by leaf, so it is opt-in
+        public final static boolean BAKE_TREE_CANOPIES = Boolean.getBoolean("pepse.bakeCanopies");
+        public final static int CANOPY_CACHE_CAPACITY = 64;
+        public final static float CANOPY_SWAY_SCALE = 0.2f;
         public final static float LEAF_CHANCES = 0.6f;
         public final static float FRUIT_CHANCES = 0.1f;
+        public final static int BLUEPRINT_RETAIN_DISTANCE = 4000;
         public final static Color BASE_WOOD_COLOR = new Color(43, 18, 4);
         public final static Color BASE_LEAF_COLOR = new Color(0, 128, 0);
         public final static Color BASE_FRUIT_COLOR = new Color(225, 18, 73);
@@ -66,6 +93,7 @@ public class Constants {
         public static final float GRAVITY = 600;
         public static final float AVATAR_SIZE = 50;
         public static final float JUMP_ENERGY = 10;
+        // the moving and idle energy are spent and gained once per simulation step
         public static final float MOVE_ENERGY = 0.5f;
         public static final float IDLE_ENERGY = 1;
         public static final float IDLE_MAX = 99;
@@ -73,13 +101,25 @@ public class Constants {
         public static final float MAX_ENERGY = 100;
         public static final float FRUIT_ENERGY_ADDITION = 10;
         public static final String AVATAR_IMAGE_PATH = "assets/idle_0.png";
+        public static final String AVATAR_ATLAS_FILE = "pepse-avatar-atlas.png";
 
         // terrain constants
         public static final Color BASE_GROUND_COLOR = new Color(212, 123, 74);
         public static final int TERRAIN_DEPTH = 30;
         public static final int NOISE_FACTOR = 7;
-        public static final int BLOCKS_TO_ADD = 2;
         public static final float HEIGHT_DIVISION_FACTOR = (2.0f / 3.0f);
+        public static final int HEIGHT_CACHE_CAPACITY = 1024;
+        public static final int TERRAIN_CHUNK_COLUMNS = 8;
+        public static final int TERRAIN_CHUNK_CACHE_CAPACITY = 16;
+        public static final boolean MERGE_TERRAIN_COLLIDERS = true;
+
+        // object pool constants, overridable with -Dpepse.blockPoolCapacity and -Dpepse.fruitPoolCapacity
+        public static final int BLOCK_POOL_CAPACITY = 2048;
+        public static final int FRUIT_POOL_CAPACITY = 512;
+
+        // fruit respawn constants, a turn of the wheel is FRUIT_RESPAWN_SLOTS * FRUIT_RESPAWN_RESOLUTION seconds
+        public static final int FRUIT_RESPAWN_SLOTS = 512;
+        public static final float FRUIT_RESPAWN_RESOLUTION = 0.1f;
 
         // pepseGameManager constants
         public static final int NIGHT_CYCLE_LEN = 30;
@@ -87,7 +127,32 @@ public class Constants {
         public static final float NUMERIC_SIZE = 50;
         public static final int AVATAR_GAME_ENTRY_HEIGHT = 200;
         public static final float CLOUD_HEIGHT = 100;
-        public static final int MOVE_TARGET = 7;
+        // the camera distance between two streaming passes, about seven frames of running at 60 frames per second
+        public static final float STREAM_DISTANCE = 45;
         public static final int TERRAIN_ADJUSTER = 10 * Block.SIZE;
-        public static final int TERRAIN_ADDITION_RANGE = 5;
+        public static final int VISIBILITY_ACTIVATION_MARGIN = 2 * Block.SIZE;
+        public static final int VISIBILITY_DORMANCY_MARGIN = 5 * Block.SIZE;
+
+        // world pregenerator constants
+        public static final int PREGEN_BASE_DISTANCE = 600;
+        public static final float PREGEN_LOOKAHEAD_SECONDS = 1.5f;
+        public static final int PREGEN_WINDOW_CHUNKS = 32;
+
+        // telemetry constants, recording from the start with -Dpepse.telemetry=true
+        public static final int TELEMETRY_SAMPLES = 600;
+        public static final int TELEMETRY_TOGGLE_KEY = KeyEvent.VK_F3;
+        public static final int TELEMETRY_DUMP_KEY = KeyEvent.VK_F4;
+
+        // snapshot constants, the file can be moved with -Dpepse.snapshot=<path>
+        public static final String SNAPSHOT_FILE = "pepse-world.snap";
+        public static final int SNAPSHOT_SAVE_KEY = KeyEvent.VK_F5;
+        public static final float SNAPSHOT_AUTOSAVE_SECONDS = 30;
+        public static final long SNAPSHOT_SHUTDOWN_TIMEOUT_MS = 2000;
+
+        // simulation constants, the steps per second can be set with -Dpepse.simulationRate, 0 for one per frame
+        public static final float SIMULATION_RATE = Integer.getInteger("pepse.simulationRate", 60);
+        public static final int MAX_SIMULATION_STEPS = 5;
+
+        // startup constants, the time from the start to the first frame
+        public static final long STARTUP_BUDGET_MS = 250;
     }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package pepse.world;
+
+import static pepse.world.Constants.*;
+import danogl.util.Vector2;
+import pepse.util.NoiseGenerator;
+import java.util.Arrays;
+
+/**
+ * A bounded cache of ground heights, indexed by block column.
+ * The cache is direct-mapped: every column has exactly one slot, so a new column simply evicts the
+ * column that shared its slot. Lookups of x-coordinates that are not on a column boundary are computed
+ * directly with the shared noise generator.
+ */
+public class HeightFieldCache {
+    private static final int EMPTY_SLOT = Integer.MIN_VALUE;
+
+    private final NoiseGenerator noiseGenerator;
+    private final float groundHeightAtX0;
+    private final double noiseFactor;
+    private final int mask;
+    private final int[] columns;
+    private final float[] heights;
+    private final float[] batch;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a HeightFieldCache object.
+     * @param seed The seed for the noise generator.
+     * @param groundHeightAtX0 The height of the ground at x = 0.
+     * @param noiseFactor The factor that describes how large the noise should be.
+     * @param capacity The number of columns the cache can hold, rounded up to a power of two.
+     */
+    public HeightFieldCache(int seed, float groundHeightAtX0, double noiseFactor, int capacity) {
+        this.noiseGenerator = new NoiseGenerator(seed, (int) groundHeightAtX0);
+        this.groundHeightAtX0 = groundHeightAtX0;
+        this.noiseFactor = noiseFactor;
+        int slots = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = slots - 1;
+        this.columns = new int[slots];
+        this.heights = new float[slots];
+        this.batch = new float[slots];
+        Arrays.fill(columns, EMPTY_SLOT);
+    }
+
+    /**
+     * Creates a HeightFieldCache object for the ground of a window.
+     * @param windowDimensions The dimensions of the window.
+     * @param seed The seed for the noise generator.
+     * @param capacity The number of columns the cache can hold, rounded up to a power of two.
+     * @return The new HeightFieldCache.
+     */
+    public static HeightFieldCache forWindow(Vector2 windowDimensions, int seed, int capacity) {
+        float groundHeightAtX0 = (windowDimensions.y() * HEIGHT_DIVISION_FACTOR);
+        return new HeightFieldCache(seed, groundHeightAtX0, Block.SIZE * NOISE_FACTOR, capacity);
+    }
+
+    /**
+     * Returns the height of the ground at a given x-coordinate.
+     * @param x The x-coordinate.
+     * @return The height of the ground at the given x-coordinate.
+     */
+    public float heightAt(float x) {
+        int column = (int) Math.floor(x / Block.SIZE);
+        if (column * Block.SIZE != x) {
+            return compute(x);
+        }
+        return heightAtColumn(column);
+    }
+
+    /**
+     * Returns the height of the ground at a given block column.
+     * @param column The index of the block column.
+     * @return The height of the ground at the left edge of the column.
+     */
+    public float heightAtColumn(int column) {
+        int slot = column & mask;
+        if (columns[slot] == column) {
+            hits++;
+            return heights[slot];
+        }
+        misses++;
+        float height = compute((float) column * Block.SIZE);
+        columns[slot] = column;
+        heights[slot] = height;
+        return height;
+    }
+
+    /**
+     * Computes the heights of a run of columns in one batch and stores them in the cache.
+     * Columns that are already cached are counted as hits, the rest as misses. If the whole run is
+     * cached, nothing is computed.
+     * @param firstColumn The index of the first column of the run.
+     * @param count The number of columns in the run, at most the capacity of the cache.
+     */
+    public void fillColumns(int firstColumn, int count) {
+        count = Math.min(count, batch.length);
+        int cached = 0;
+        for (int i = 0; i < count; i++) {
+            if (columns[(firstColumn + i) & mask] == firstColumn + i) {
+                cached++;
+            }
+        }
+        hits += cached;
+        if (cached == count) {
+            return;
+        }
+        misses += count - cached;
+        computeColumns(firstColumn, count, batch);
+        storeColumns(firstColumn, batch, count);
+    }
+
+    /**
+     * Computes the heights of a run of columns in one batch, without touching the cache.
+     * @param firstColumn The index of the first column of the run.
+     * @param count The number of columns in the run.
+     * @param out The array to write the heights into.
+     */
+    public void computeColumns(int firstColumn, int count, float[] out) {
+        noiseGenerator.noise((float) firstColumn * Block.SIZE, Block.SIZE, count, noiseFactor, out, 0);
+        for (int i = 0; i < count; i++) {
+            out[i] = groundHeightAtX0 + out[i];
+        }
+    }
+
+    /**
+     * Stores heights that were computed elsewhere, for example by a background generator.
+     * @param firstColumn The index of the first column of the run.
+     * @param heights The heights of the columns.
+     * @param count The number of columns to store.
+     */
+    public void storeColumns(int firstColumn, float[] heights, int count) {
+        for (int i = 0; i < count; i++) {
+            int slot = (firstColumn + i) & mask;
+            columns[slot] = firstColumn + i;
+            this.heights[slot] = heights[i];
+        }
+    }
+
+    /**
+     * Computes the height of the ground at a given x-coordinate without touching the cache.
+     * @param x The x-coordinate.
+     * @return The height of the ground at the given x-coordinate.
+     */
+    private float compute(float x) {
+        float noise = (float) noiseGenerator.noise(x, noiseFactor);
+        return groundHeightAtX0 + noise;
+    }
+
+    /**
+     * Gets the number of lookups that were answered from the cache.
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of column lookups that had to compute the noise.
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of columns the cache can hold.
+     * @return The capacity of the cache.
+     */
+    public int getCapacity() {
+        return columns.length;
+    }
+}
@@ -0,0 +1,82 @@
+package pepse.world;
+
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.Vector2;
+import java.util.function.IntSupplier;
+
+/**
+ * A counter drawn on the screen, such as the energy of the avatar.
+ * The counter keeps a single GameObject and reads its value once per frame. The text of every value in a cached
+ * range is rendered once, so a frame where the value did not change costs a single int comparison, and a frame
+ * where it did only swaps the renderable.
+ */
+public class HudCounter extends GameObject {
+    private final IntSupplier value;
+    private final String prefix;
+    private final String suffix;
+    private final int minCached;
+    private final TextRenderable[] cachedTexts;
+    private int shownValue;
+
+    /**
+     * Creates a HudCounter object.
+     * @param topLeftCorner The top left corner of the counter, in camera coordinates.
+     * @param dimensions The dimensions of the counter.
+     * @param prefix The text shown before the value.
+     * @param suffix The text shown after the value.
+     * @param minCached The smallest value whose text is cached.
+     * @param maxCached The largest value whose text is cached.
+     * @param value Supplies the value of the counter.
+     */
+    public HudCounter(Vector2 topLeftCorner, Vector2 dimensions, String prefix, String suffix,
+                      int minCached, int maxCached, IntSupplier value) {
+        super(topLeftCorner, dimensions, null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        this.value = value;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.minCached = minCached;
+        this.cachedTexts = new TextRenderable[maxCached - minCached + 1];
+        for (int i = 0; i < cachedTexts.length; i++) {
+            cachedTexts[i] = new TextRenderable(prefix + (minCached + i) + suffix);
+        }
+        show(value.getAsInt());
+    }
+
+    /**
+     * Shows the current value if it changed since the last frame.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        int currentValue = value.getAsInt();
+        if (currentValue != shownValue) {
+            show(currentValue);
+        }
+    }
+
+    /**
+     * Swaps in the text of a value, rendering it only if it is out of the cached range.
+     * @param newValue The value to show.
+     */
+    private void show(int newValue) {
+        int index = newValue - minCached;
+        if (index >= 0 && index < cachedTexts.length) {
+            renderer().setRenderable(cachedTexts[index]);
+        } else {
+            renderer().setRenderable(new TextRenderable(prefix + newValue + suffix));
+        }
+        shownValue = newValue;
+    }
+
+    /**
+     * Gets the value the counter shows.
+     * @return The shown value.
+     */
+    public int getShownValue() {
+        return shownValue;
+    }
+}
@@ -0,0 +1,75 @@
+package pepse.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes world snapshots on a background thread. The snapshot is encoded on the calling thread, which is cheap,
+ * and the file is written next to the target and then moved over it, so a crash never leaves half a snapshot.
+ */
+public class SnapshotWriter {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Writes a snapshot without blocking the caller.
+     * @param snapshot The snapshot.
+     * @param path The path of the file.
+     * @return A future that completes once the file is written, or completes exceptionally if writing failed.
+     */
+    public CompletableFuture<Void> writeAsync(WorldSnapshot snapshot, Path path) {
+        ByteBuffer encoded = snapshot.encode();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(encoded, path);
+            } catch (IOException e) {
+                throw new RuntimeException("cannot write world snapshot " + path, e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes an encoded snapshot to a temporary file and moves it over the target.
+     * @param encoded The encoded snapshot.
+     * @param path The path of the file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void write(ByteBuffer encoded, Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (encoded.hasRemaining()) {
+                channel.write(encoded);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stops the writer thread once the pending writes are done, and waits for them.
+     * @param timeoutMillis The longest time to wait, in milliseconds.
+     * @return True if every pending write finished in time.
+     */
+    public boolean shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
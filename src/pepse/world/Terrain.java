@@ -5,19 +5,37 @@ import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
-import pepse.util.NoiseGenerator;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 
 /**
  * A class to create the Ground based on Block GameObjects.
+ * The ground is split into fixed-width chunks. Chunks that leave the active range are kept in a bounded
+ * LRU cache, so walking back over known ground reattaches the existing blocks instead of regenerating them.
+ * When colliders are merged, every run of neighbouring columns at the same height is a single tall Block
+ * instead of TERRAIN_DEPTH blocks per column; since the ground has one flat color it looks the same.
  */
 public class Terrain {
-    private final float groundHeightAtX0;
-    private final int seed;
-    private List<List<Block>> blocks;
+    private final HeightFieldCache heightField;
+    private final int chunkColumns;
+    private final int chunkWidth;
+    private final int chunkCacheCapacity;
+    private final boolean mergeColliders;
+    private final RectangleRenderable renderable = new RectangleRenderable(BASE_GROUND_COLOR);
+    private final TreeMap<Integer, TerrainChunk> activeChunks = new TreeMap<>();
+    private final Collection<TerrainChunk> activeChunkView = Collections.unmodifiableCollection(activeChunks.values());
+    private final LinkedHashMap<Integer, TerrainChunk> chunkCache;
+    private long chunksGenerated;
+    private long chunkCacheHits;
+    private long chunkEvictions;
 
     /**
      * Creates a Terrain object.
@@ -25,8 +43,40 @@ public class Terrain {
      * @param seed The seed for the random number generator.
      */
     public Terrain(Vector2 windowDimensions, int seed) {
-        this.seed = seed;
-        groundHeightAtX0 = (windowDimensions.y() * HEIGHT_DIVISION_FACTOR);
+        this(windowDimensions, seed, TERRAIN_CHUNK_COLUMNS, TERRAIN_CHUNK_CACHE_CAPACITY,
+                MERGE_TERRAIN_COLLIDERS);
+    }
+
+    /**
+     * Creates a Terrain object.
+     * @param windowDimensions The dimensions of the window.
+     * @param seed The seed for the random number generator.
+     * @param chunkColumns The number of block columns in a chunk.
+     * @param chunkCacheCapacity The number of detached chunks kept for reuse.
+     * @param mergeColliders Whether runs of columns at the same height share a single Block.
+     */
+    public Terrain(Vector2 windowDimensions, int seed, int chunkColumns, int chunkCacheCapacity,
+                   boolean mergeColliders) {
+        heightField = HeightFieldCache.forWindow(windowDimensions, seed, HEIGHT_CACHE_CAPACITY);
+        this.chunkColumns = chunkColumns;
+        this.chunkWidth = chunkColumns * Block.SIZE;
+        this.chunkCacheCapacity = chunkCacheCapacity;
+        this.mergeColliders = mergeColliders;
+        // an access-ordered map that drops its least recently used chunk once it is full
+        this.chunkCache = new LinkedHashMap<>(chunkCacheCapacity + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, TerrainChunk> eldest) {
+                if (size() > Terrain.this.chunkCacheCapacity) {
+                    chunkEvictions++;
+                    // the chunk is already out of the game, so its blocks can go back to the pool
+                    for (Block block : eldest.getValue().getBlocks()) {
+                        block.release();
+                    }
+                    return true;
+                }
+                return false;
+            }
+        };
     }
 
     /**
@@ -35,126 +85,205 @@ public class Terrain {
      * @return The height of the ground at the given x-coordinate.
      */
     public float groundHeightAt(float x) {
-        NoiseGenerator noiseGenerator = new NoiseGenerator(seed, (int) groundHeightAtX0);
-        float noise = (float) noiseGenerator.noise(x, Block.SIZE * NOISE_FACTOR);
-        return groundHeightAtX0 + noise;
+        return heightField.heightAt(x);
     }
 
     /**
-     * Adds the starting blocks of the game.
-     * @param minX The minimum x-coordinate.
-     * @param maxX The maximum x-coordinate.
+     * Gets the height-field cache that backs groundHeightAt.
+     * @return The height-field cache of the terrain.
      */
-    private void addStartingGameBlocks(int minX, int maxX) {
-        int numOfBlocksColumns = (maxX - minX) / Block.SIZE;
-        blocks = new ArrayList<>(numOfBlocksColumns);
-        RectangleRenderable renderable = new RectangleRenderable(BASE_GROUND_COLOR);
+    public HeightFieldCache getHeightField() {
+        return heightField;
+    }
 
-        for (int i = 0; i < numOfBlocksColumns; i++) {
-            float rawCurrentHeightX = groundHeightAt((float) minX + i * Block.SIZE);
-            float fixedCurrentHeightX = (float) Math.floor(rawCurrentHeightX / Block.SIZE) * Block.SIZE;
-            List<Block> blockList = new ArrayList<>(TERRAIN_DEPTH);
+    /**
+     * Gets the number of block columns in a chunk.
+     * @return The number of block columns in a chunk.
+     */
+    public int getChunkColumns() {
+        return chunkColumns;
+    }
 
-            for (int j = 0; j < TERRAIN_DEPTH; j++) {
-                blockList.add(new Block(new Vector2(minX + i * Block.SIZE,
-                        fixedCurrentHeightX + j * Block.SIZE),
-                        renderable));
+    /**
+     * Stores the heights of a chunk that was computed ahead of time, so building it only reads the cache.
+     * @param layout The layout of the chunk.
+     */
+    public void acceptLayout(ChunkLayout layout) {
+        float[] heights = layout.getHeights();
+        heightField.storeColumns(layout.getFirstColumn(), heights, heights.length);
+    }
+
+    /**
+     * Creates the Block GameObjects of a single chunk.
+     * @param chunkIndex The index of the chunk.
+     * @return The new chunk.
+     */
+    private TerrainChunk generateChunk(int chunkIndex) {
+        int minX = chunkIndex * chunkWidth;
+        int firstColumn = chunkIndex * chunkColumns;
+        List<Block> blocks = new ArrayList<>(mergeColliders ? chunkColumns : chunkColumns * TERRAIN_DEPTH);
+        heightField.fillColumns(firstColumn, chunkColumns);
+
+        int i = 0;
+        while (i < chunkColumns) {
+            float fixedCurrentHeightX = fixedHeightAtColumn(firstColumn + i);
+            if (mergeColliders) {
+                // extend the run while the next column has the same height
+                int runLength = 1;
+                while (i + runLength < chunkColumns &&
+                        fixedHeightAtColumn(firstColumn + i + runLength) == fixedCurrentHeightX) {
+                    runLength++;
+                }
+                blocks.add(createMergedBlock(minX + i * Block.SIZE, fixedCurrentHeightX, runLength));
+                i += runLength;
+            } else {
+                for (int j = 0; j < TERRAIN_DEPTH; j++) {
+                    Block block = Block.obtain(new Vector2(minX + i * Block.SIZE,
+                            fixedCurrentHeightX + j * Block.SIZE),
+                            renderable);
+                    block.setTag("ground");
+                    blocks.add(block);
+                }
+                i++;
             }
-            blocks.add(blockList);
         }
+        chunksGenerated++;
+        return new TerrainChunk(chunkIndex, minX, minX + chunkWidth, blocks);
+    }
+
+    /**
+     * Returns the height of a column, snapped down to the block grid.
+     * @param column The index of the block column.
+     * @return The height of the top block of the column.
+     */
+    private float fixedHeightAtColumn(int column) {
+        float rawCurrentHeightX = heightField.heightAtColumn(column);
+        return (float) Math.floor(rawCurrentHeightX / Block.SIZE) * Block.SIZE;
+    }
+
+    /**
+     * Creates a single Block that covers a run of columns at the same height, TERRAIN_DEPTH blocks deep.
+     * @param x The x-coordinate of the first column of the run.
+     * @param height The height of the top of the run.
+     * @param runLength The number of columns in the run.
+     * @return The merged Block.
+     */
+    private Block createMergedBlock(int x, float height, int runLength) {
+        Block block = Block.obtain(new Vector2(x, height),
+                new Vector2(runLength * Block.SIZE, TERRAIN_DEPTH * Block.SIZE),
+                renderable);
+        block.setTag("ground");
+        return block;
+    }
+
+    /**
+     * Returns the chunk with the given index, taking it from the chunk cache if possible.
+     * @param chunkIndex The index of the chunk.
+     * @return The chunk.
+     */
+    private TerrainChunk obtainChunk(int chunkIndex) {
+        TerrainChunk chunk = chunkCache.remove(chunkIndex);
+        if (chunk != null) {
+            chunkCacheHits++;
+            return chunk;
+        }
+        return generateChunk(chunkIndex);
     }
 
     /**
-     * Creates a list of Block GameObjects in a given range.
+     * Attaches the chunks that cover a given range.
      * @param minX The minimum x-coordinate.
      * @param maxX The maximum x-coordinate.
-     * @return The list of Block GameObjects.
+     * @return The blocks of every newly attached chunk, one list per chunk.
      */
     public List<List<Block>> createInRange(int minX, int maxX) {
-        if ((maxX - minX) % Block.SIZE != 0) {
-            // change maxX so that maxX - minX is a multiple of Block.SIZE
-            int cellingNum = (int) Math.ceil((double) (maxX - minX) / Block.SIZE);
-            maxX = minX + cellingNum * Block.SIZE;
+        List<List<Block>> blocks = new ArrayList<>();
+        int firstChunk = Math.floorDiv(minX, chunkWidth);
+        int lastChunk = Math.floorDiv(maxX, chunkWidth);
+        for (int chunkIndex = firstChunk; chunkIndex <= lastChunk; chunkIndex++) {
+            if (!activeChunks.containsKey(chunkIndex)) {
+                TerrainChunk chunk = obtainChunk(chunkIndex);
+                // a chunk that went dormant before it was detached comes back awake
+                chunk.setDormant(false);
+                activeChunks.put(chunkIndex, chunk);
+                blocks.add(chunk.getBlocks());
+            }
         }
-        addStartingGameBlocks(minX, maxX);
         return blocks;
     }
 
-
     /**
-     * Adds a column of blocks to the right of the terrain.
+     * Attaches the chunks that cover the given range and detaches the chunks that left it.
+     * Detached chunks are kept in the chunk cache.
+     * @param minX The minimum x-coordinate.
+     * @param maxX The maximum x-coordinate.
+     * @param removeGameObjectPredicate The predicate to remove a GameObject.
      * @param addGameObjectPredicate    The predicate to add a GameObject.
      */
-    public void addOneBlockRight(BiConsumer<GameObject, Integer> addGameObjectPredicate) {
-        // add a column of blocks to the right of the terrain
-        RectangleRenderable renderable = new RectangleRenderable(BASE_GROUND_COLOR);
-        List<Block> blockList = new ArrayList<>(TERRAIN_DEPTH);
-        for (int j = 0; j < TERRAIN_DEPTH; j++) {
-            float farthestX = blocks.get(blocks.size() - 1).get(0).getTopLeftCorner().x();
-            blockList.add(new Block(new Vector2(farthestX + Block.SIZE,
-                    groundHeightAt(farthestX + Block.SIZE) + j * Block.SIZE),
-                    renderable));
+    public void updateRange(int minX, int maxX,
+                            BiPredicate<GameObject, Integer> removeGameObjectPredicate,
+                            BiConsumer<GameObject, Integer> addGameObjectPredicate) {
+        int firstChunk = Math.floorDiv(minX, chunkWidth);
+        int lastChunk = Math.floorDiv(maxX, chunkWidth);
+
+        // detach the chunks that are out of the range
+        Iterator<TerrainChunk> iterator = activeChunks.values().iterator();
+        while (iterator.hasNext()) {
+            TerrainChunk chunk = iterator.next();
+            if (chunk.getIndex() < firstChunk || chunk.getIndex() > lastChunk) {
+                for (Block block : chunk.getBlocks()) {
+                    removeGameObjectPredicate.test(block, Layer.STATIC_OBJECTS);
+                }
+                iterator.remove();
+                chunkCache.put(chunk.getIndex(), chunk);
+            }
         }
-        blocks.add(blockList);
-        for (Block block : blockList) {
-            addGameObjectPredicate.accept(block, Layer.STATIC_OBJECTS);
+
+        // attach the chunks that entered the range
+        for (List<Block> chunkBlocks : createInRange(minX, maxX)) {
+            for (Block block : chunkBlocks) {
+                addGameObjectPredicate.accept(block, Layer.STATIC_OBJECTS);
+            }
         }
     }
 
     /**
-     * Adds 10 columns of blocks to the right of the terrain.
-     * @param removeGameObjectPredicate The predicate to remove a GameObject.
-     * @param addGameObjectPredicate    The predicate to add a GameObject.
+     * Gets the attached chunks.
+     * @return A read-only view of the attached chunks, ordered by their index.
      */
-    public void add10BlockColumnsRight(BiPredicate<GameObject, Integer> removeGameObjectPredicate,
-                                       BiConsumer<GameObject, Integer> addGameObjectPredicate) {
-        // add 10 columns of blocks to the right of the terrain
-        for (int i = 0; i < BLOCKS_TO_ADD; i++) {
-            addOneBlockRight(addGameObjectPredicate);
-        }
-        // remove the leftmost column of blocks
-        for (Block block : blocks.get(0)) {
-            removeGameObjectPredicate.test(block, Layer.STATIC_OBJECTS);
-        }
-        blocks.remove(0);
+    public Collection<TerrainChunk> getActiveChunks() {
+        return activeChunkView;
     }
 
     /**
-     * Adds a column of blocks to the left of the terrain.
-     * @param addGameObjectPredicate    The predicate to add a GameObject.
+     * Gets the number of chunks that were generated from scratch.
+     * @return The number of generated chunks.
      */
-    public void addOneBlockLeft(BiConsumer<GameObject, Integer> addGameObjectPredicate) {
-        // add a column of blocks to the left of the terrain
-        RectangleRenderable renderable =
-                new RectangleRenderable(BASE_GROUND_COLOR);
-        List<Block> blockList = new ArrayList<>(TERRAIN_DEPTH);
-        for (int j = 0; j < TERRAIN_DEPTH; j++) {
-            float farthestX = blocks.get(0).get(0).getTopLeftCorner().x();
-            blockList.add(new Block(new Vector2(farthestX - Block.SIZE,
-                    groundHeightAt(farthestX - Block.SIZE) + j * Block.SIZE),
-                    renderable));
-        }
-        blocks.add(0, blockList);
-        for (Block block : blockList) {
-            addGameObjectPredicate.accept(block, Layer.STATIC_OBJECTS);
-        }
+    public long getChunksGenerated() {
+        return chunksGenerated;
     }
 
     /**
-     * Adds 2 columns of blocks to the left of the terrain.
-     * @param removeGameObjectPredicate The predicate to remove a GameObject.
-     * @param addGameObjectPredicate    The predicate to add a GameObject.
+     * Gets the number of chunks that were reattached from the chunk cache.
+     * @return The number of chunk cache hits.
      */
-    public void add2BlockColumnsLeft(BiPredicate<GameObject, Integer> removeGameObjectPredicate,
-                                     BiConsumer<GameObject, Integer> addGameObjectPredicate) {
-        // add 2 columns of blocks to the left of the terrain
-        for (int i = 0; i < BLOCKS_TO_ADD; i++) {
-            addOneBlockLeft(addGameObjectPredicate);
-        }
-        // remove the rightmost column of blocks
-        for (Block block : blocks.get(blocks.size() - 1)) {
-            removeGameObjectPredicate.test(block, Layer.STATIC_OBJECTS);
-        }
-        blocks.remove(blocks.size() - 1);
+    public long getChunkCacheHits() {
+        return chunkCacheHits;
+    }
+
+    /**
+     * Gets the number of chunks that were dropped from the chunk cache.
+     * @return The number of chunk evictions.
+     */
+    public long getChunkEvictions() {
+        return chunkEvictions;
+    }
+
+    /**
+     * Gets the number of detached chunks that are currently cached.
+     * @return The number of cached chunks.
+     */
+    public int getCachedChunkCount() {
+        return chunkCache.size();
     }
-}
\ No newline at end of file
+}
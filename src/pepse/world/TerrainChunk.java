@@ -0,0 +1,82 @@
+package pepse.world;
+
+import java.util.List;
+
+/**
+ * A fixed-width run of terrain columns and the Block GameObjects that build it.
+ */
+public class TerrainChunk {
+    private final int index;
+    private final int minX;
+    private final int maxX;
+    private final List<Block> blocks;
+    private boolean dormant;
+
+    /**
+     * Creates a TerrainChunk object.
+     * @param index The index of the chunk.
+     * @param minX The x-coordinate of the left edge of the chunk.
+     * @param maxX The x-coordinate of the right edge of the chunk (exclusive).
+     * @param blocks The blocks of the chunk.
+     */
+    public TerrainChunk(int index, int minX, int maxX, List<Block> blocks) {
+        this.index = index;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Gets the index of the chunk.
+     * @return The index of the chunk.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the x-coordinate of the left edge of the chunk.
+     * @return The x-coordinate of the left edge of the chunk.
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Gets the x-coordinate of the right edge of the chunk (exclusive).
+     * @return The x-coordinate of the right edge of the chunk.
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Gets the blocks of the chunk.
+     * @return The blocks of the chunk.
+     */
+    public List<Block> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Suspends or resumes every block of the chunk.
+     * @param dormant Whether the chunk is dormant.
+     */
+    public void setDormant(boolean dormant) {
+        if (this.dormant == dormant) {
+            return;
+        }
+        this.dormant = dormant;
+        for (Block block : blocks) {
+            block.setDormant(dormant);
+        }
+    }
+
+    /**
+     * Returns whether the chunk is dormant.
+     * @return True if the chunk is dormant.
+     */
+    public boolean isDormant() {
+        return dormant;
+    }
+}
@@ -0,0 +1,100 @@
+package pepse.world;
+
+import danogl.GameObject;
+import pepse.world.trees.Flora;
+import pepse.world.trees.Tree;
+
+/**
+ * Marks the terrain chunks and the trees as active or dormant by their distance from the camera view.
+ * An entity wakes up once it comes within the activation margin of the view, and only goes dormant once it is
+ * beyond the larger dormancy margin, so an entity at the edge of the view does not flip every frame.
+ * Dormant entities run no components and collide with nothing.
+ */
+public class VisibilityManager {
+    private final GameObject camera;
+    private final Terrain terrain;
+    private final Flora flora;
+    private final int activationMargin;
+    private final int dormancyMargin;
+    private int activeCount;
+    private int dormantCount;
+
+    /**
+     * Creates a VisibilityManager object.
+     * @param camera The camera whose view decides what is active.
+     * @param terrain The terrain whose chunks are managed.
+     * @param flora The flora whose trees are managed.
+     * @param activationMargin The distance from the view within which a dormant entity wakes up.
+     * @param dormancyMargin The distance from the view beyond which an active entity goes dormant; it must not be
+     *                       smaller than the activation margin.
+     */
+    public VisibilityManager(GameObject camera, Terrain terrain, Flora flora, int activationMargin,
+                             int dormancyMargin) {
+        this.camera = camera;
+        this.terrain = terrain;
+        this.flora = flora;
+        this.activationMargin = activationMargin;
+        this.dormancyMargin = Math.max(activationMargin, dormancyMargin);
+    }
+
+    /**
+     * Updates the state of every chunk and tree from the current camera view.
+     */
+    public void update() {
+        float viewMinX = camera.getTopLeftCorner().x();
+        float viewMaxX = viewMinX + camera.getDimensions().x();
+        activeCount = 0;
+        dormantCount = 0;
+        for (TerrainChunk chunk : terrain.getActiveChunks()) {
+            chunk.setDormant(nextDormant(chunk.isDormant(), chunk.getMinX(), chunk.getMaxX(), viewMinX, viewMaxX));
+            countState(chunk.isDormant());
+        }
+        for (Tree tree : flora.getTrees()) {
+            tree.setDormant(nextDormant(tree.isDormant(), tree.getMinX(), tree.getMaxX(), viewMinX, viewMaxX));
+            countState(tree.isDormant());
+        }
+    }
+
+    /**
+     * Decides the next state of an entity.
+     * @param dormant Whether the entity is dormant now.
+     * @param minX The left edge of the entity.
+     * @param maxX The right edge of the entity.
+     * @param viewMinX The left edge of the view.
+     * @param viewMaxX The right edge of the view.
+     * @return True if the entity should be dormant.
+     */
+    private boolean nextDormant(boolean dormant, int minX, int maxX, float viewMinX, float viewMaxX) {
+        int margin = dormant ? activationMargin : dormancyMargin;
+        boolean nearView = maxX >= viewMinX - margin && minX <= viewMaxX + margin;
+        return !nearView;
+    }
+
+    /**
+     * Counts an entity in its state.
+     * @param dormant Whether the entity is dormant.
+     */
+    private void countState(boolean dormant) {
+        if (dormant) {
+            dormantCount++;
+        } else {
+            activeCount++;
+        }
+    }
+
+    /**
+     * Gets the number of chunks and trees that were active after the last update.
+     * @return The number of active entities.
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Gets the number of chunks and trees that were dormant after the last update.
+     * @return The number of dormant entities.
+     */
+    public int getDormantCount() {
+        return dormantCount;
+    }
+}
@@ -0,0 +1,149 @@
+package pepse.world;
+
+import static pepse.world.Constants.*;
+import danogl.util.Vector2;
+import pepse.world.trees.Flora;
+import pepse.world.trees.TreeBlueprint;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A background producer that computes the layouts of the chunks ahead of the camera.
+ * The game thread asks for chunks in the direction the avatar is moving, and the producer thread answers
+ * with ChunkLayouts (heights and tree blueprints) through a lock-free queue. Only the producer thread touches
+ * its own noise state, so the game thread never waits for it.
+ */
+public class WorldPregenerator implements Runnable {
+    private static final long NO_REQUEST = Long.MIN_VALUE;
+
+    private final HeightFieldCache heightField;
+    private final int seed;
+    private final int chunkColumns;
+    private final int chunkWidth;
+    private final ConcurrentLinkedQueue<ChunkLayout> readyLayouts = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    // the first and the last requested chunk, packed so the producer never reads the halves of two requests
+    private volatile long requestedChunks = NO_REQUEST;
+    private volatile boolean running;
+
+    // owned by the producer thread
+    private int producedLow;
+    private int producedHigh = -1;
+    private final TreeBlueprint[] treeBuffer;
+
+    /**
+     * Creates a WorldPregenerator object.
+     * @param windowDimensions The dimensions of the window.
+     * @param seed The seed of the world.
+     * @param chunkColumns The number of block columns in a chunk.
+     */
+    public WorldPregenerator(Vector2 windowDimensions, int seed, int chunkColumns) {
+        // the producer has its own height field, the one of the terrain belongs to the game thread
+        this.heightField = HeightFieldCache.forWindow(windowDimensions, seed, chunkColumns);
+        this.seed = seed;
+        this.chunkColumns = chunkColumns;
+        this.chunkWidth = chunkColumns * Block.SIZE;
+        this.treeBuffer = new TreeBlueprint[chunkColumns];
+        this.thread = new Thread(this, "world-pregenerator");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts the producer thread.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops the producer thread.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Asks for the chunks ahead of an edge of the camera, at a distance that grows with the speed.
+     * Called from the game thread; it only publishes the request and never blocks.
+     * @param edgeX The x-coordinate of the camera edge the avatar is moving towards.
+     * @param velocityX The horizontal velocity of the avatar.
+     */
+    public void requestAhead(int edgeX, float velocityX) {
+        if (velocityX == 0) {
+            return;
+        }
+        int distance = (int) (PREGEN_BASE_DISTANCE + Math.abs(velocityX) * PREGEN_LOOKAHEAD_SECONDS);
+        int targetX = velocityX > 0 ? edgeX + distance : edgeX - distance;
+        int fromChunk = Math.floorDiv(edgeX, chunkWidth);
+        int toChunk = Math.floorDiv(targetX, chunkWidth);
+        requestedChunks = ((long) fromChunk << Integer.SIZE) | (toChunk & 0xFFFFFFFFL);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Takes the next finished layout, if there is one.
+     * @return The next layout, or null if none is ready.
+     */
+    public ChunkLayout poll() {
+        return readyLayouts.poll();
+    }
+
+    /**
+     * Produces the requested chunks until the generator is stopped.
+     */
+    @Override
+    public void run() {
+        while (running) {
+            long request = requestedChunks;
+            if (request != NO_REQUEST) {
+                produceRange((int) (request >> Integer.SIZE), (int) request);
+            }
+            LockSupport.park(this);
+        }
+    }
+
+    /**
+     * Produces every chunk between two chunks that was not produced yet, starting near the camera.
+     * The produced range is a window of at most PREGEN_WINDOW_CHUNKS chunks that follows the requests.
+     * @param fromChunk The chunk at the edge of the camera.
+     * @param toChunk The farthest chunk that was asked for.
+     */
+    private void produceRange(int fromChunk, int toChunk) {
+        if (producedHigh < producedLow || fromChunk > producedHigh + 1 || fromChunk < producedLow - 1) {
+            // the request does not touch the produced window, start a new empty one at the camera edge
+            producedLow = toChunk >= fromChunk ? fromChunk : fromChunk + 1;
+            producedHigh = producedLow - 1;
+        }
+        while (running && producedHigh < toChunk) {
+            readyLayouts.add(produceChunk(++producedHigh));
+            producedLow = Math.max(producedLow, producedHigh - PREGEN_WINDOW_CHUNKS);
+        }
+        while (running && producedLow > toChunk) {
+            readyLayouts.add(produceChunk(--producedLow));
+            producedHigh = Math.min(producedHigh, producedLow + PREGEN_WINDOW_CHUNKS);
+        }
+    }
+
+    /**
+     * Computes the layout of a single chunk.
+     * @param chunkIndex The index of the chunk.
+     * @return The layout of the chunk.
+     */
+    private ChunkLayout produceChunk(int chunkIndex) {
+        int firstColumn = chunkIndex * chunkColumns;
+        float[] heights = new float[chunkColumns];
+        heightField.computeColumns(firstColumn, chunkColumns, heights);
+
+        int treeCount = 0;
+        for (int column = firstColumn; column < firstColumn + chunkColumns; column++) {
+            if (Flora.hasTreeAt(column, seed)) {
+                treeBuffer[treeCount++] = TreeBlueprint.derive(seed, column * Block.SIZE,
+                        heights[column - firstColumn]);
+            }
+        }
+        return new ChunkLayout(chunkIndex, firstColumn, heights, Arrays.copyOf(treeBuffer, treeCount));
+    }
+}
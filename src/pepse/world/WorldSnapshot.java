@@ -0,0 +1,234 @@
+package pepse.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A compact binary snapshot of a world: the seed, the avatar, the loaded terrain with its ground heights, and
+ * the eaten fruits of the loaded trees as one bitmask per tree.
+ * The layout is big-endian: magic, version, seed, avatar x, y and energy, first and last loaded chunk, first
+ * column and column heights, and the trees as pairs of trunk x-coordinate and eaten-fruit mask.
+ */
+public class WorldSnapshot {
+    private static final int MAGIC = 0x50455053; // "PEPS"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES + 3 * Float.BYTES
+            + 3 * Integer.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int TREE_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final int seed;
+    private final float avatarX;
+    private final float avatarY;
+    private final float avatarEnergy;
+    private final int firstChunk;
+    private final int lastChunk;
+    private final int firstColumn;
+    private final float[] heights;
+    private final int[] treeXs;
+    private final long[] eatenFruitMasks;
+
+    /**
+     * Creates a WorldSnapshot object.
+     * @param seed The seed of the world.
+     * @param avatarX The x-coordinate of the top left corner of the avatar.
+     * @param avatarY The y-coordinate of the top left corner of the avatar.
+     * @param avatarEnergy The energy of the avatar.
+     * @param firstChunk The index of the first loaded terrain chunk.
+     * @param lastChunk The index of the last loaded terrain chunk.
+     * @param firstColumn The index of the first column whose height is kept.
+     * @param heights The ground heights of the loaded columns.
+     * @param treeXs The trunk x-coordinates of the loaded trees.
+     * @param eatenFruitMasks The eaten fruits of every loaded tree, one bit per canopy cell.
+     */
+    public WorldSnapshot(int seed, float avatarX, float avatarY, float avatarEnergy, int firstChunk,
+                         int lastChunk, int firstColumn, float[] heights, int[] treeXs, long[] eatenFruitMasks) {
+        this.seed = seed;
+        this.avatarX = avatarX;
+        this.avatarY = avatarY;
+        this.avatarEnergy = avatarEnergy;
+        this.firstChunk = firstChunk;
+        this.lastChunk = lastChunk;
+        this.firstColumn = firstColumn;
+        this.heights = heights;
+        this.treeXs = treeXs;
+        this.eatenFruitMasks = eatenFruitMasks;
+    }
+
+    /**
+     * Encodes the snapshot.
+     * @return A buffer that holds the encoded snapshot, ready to be read.
+     */
+    public ByteBuffer encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + heights.length * Float.BYTES
+                + treeXs.length * TREE_BYTES);
+        buffer.putInt(MAGIC).putShort(VERSION).putInt(seed);
+        buffer.putFloat(avatarX).putFloat(avatarY).putFloat(avatarEnergy);
+        buffer.putInt(firstChunk).putInt(lastChunk).putInt(firstColumn);
+        buffer.putInt(heights.length);
+        for (float height : heights) {
+            buffer.putFloat(height);
+        }
+        buffer.putInt(treeXs.length);
+        for (int i = 0; i < treeXs.length; i++) {
+            buffer.putInt(treeXs[i]).putLong(eatenFruitMasks[i]);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes a snapshot.
+     * @param buffer A buffer that holds an encoded snapshot.
+     * @return The snapshot.
+     * @throws IOException If the buffer does not hold a snapshot of this version.
+     */
+    public static WorldSnapshot decode(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("not a world snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported world snapshot version " + version);
+        }
+        int seed = buffer.getInt();
+        float avatarX = buffer.getFloat();
+        float avatarY = buffer.getFloat();
+        float avatarEnergy = buffer.getFloat();
+        int firstChunk = buffer.getInt();
+        int lastChunk = buffer.getInt();
+        int firstColumn = buffer.getInt();
+        int columnCount = buffer.getInt();
+        // the counts are checked before allocating, so a corrupt count cannot ask for more than the file holds
+        if (columnCount < 0 || buffer.remaining() < (long) columnCount * Float.BYTES + Integer.BYTES) {
+            throw new IOException("truncated world snapshot");
+        }
+        // every loaded chunk keeps the heights of its columns
+        if (lastChunk < firstChunk || (long) lastChunk - firstChunk >= columnCount) {
+            throw new IOException("corrupt chunk range in world snapshot");
+        }
+        float[] heights = new float[columnCount];
+        buffer.asFloatBuffer().get(heights);
+        buffer.position(buffer.position() + heights.length * Float.BYTES);
+        int treeCount = buffer.getInt();
+        if (treeCount < 0 || buffer.remaining() < (long) treeCount * TREE_BYTES) {
+            throw new IOException("truncated world snapshot");
+        }
+        int[] treeXs = new int[treeCount];
+        long[] eatenFruitMasks = new long[treeCount];
+        for (int i = 0; i < treeCount; i++) {
+            treeXs[i] = buffer.getInt();
+            eatenFruitMasks[i] = buffer.getLong();
+        }
+        return new WorldSnapshot(seed, avatarX, avatarY, avatarEnergy, firstChunk, lastChunk, firstColumn,
+                heights, treeXs, eatenFruitMasks);
+    }
+
+    /**
+     * Reads a snapshot file. The file is small, so it is read into the heap in one go; a mapping would hold the
+     * file until it is collected, and on some systems the next save could not replace it.
+     * @param path The path of the file.
+     * @return The snapshot.
+     * @throws IOException If the file cannot be read or does not hold a snapshot.
+     */
+    public static WorldSnapshot read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        try {
+            return decode(ByteBuffer.wrap(bytes));
+        } catch (RuntimeException e) {
+            // a truncated file ends the buffer early
+            throw new IOException("corrupt world snapshot " + path, e);
+        }
+    }
+
+    /**
+     * Returns whether the kept heights are exactly the columns of the loaded chunks.
+     * @param chunkColumns The number of block columns in a chunk.
+     * @return True if the heights start at the first loaded chunk and end at the last one.
+     */
+    public boolean coversChunks(int chunkColumns) {
+        return firstColumn == (long) firstChunk * chunkColumns
+                && heights.length == ((long) lastChunk - firstChunk + 1) * chunkColumns;
+    }
+
+    /**
+     * Gets the seed of the world.
+     * @return The seed.
+     */
+    public int getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the x-coordinate of the top left corner of the avatar.
+     * @return The x-coordinate of the avatar.
+     */
+    public float getAvatarX() {
+        return avatarX;
+    }
+
+    /**
+     * Gets the y-coordinate of the top left corner of the avatar.
+     * @return The y-coordinate of the avatar.
+     */
+    public float getAvatarY() {
+        return avatarY;
+    }
+
+    /**
+     * Gets the energy of the avatar.
+     * @return The energy of the avatar.
+     */
+    public float getAvatarEnergy() {
+        return avatarEnergy;
+    }
+
+    /**
+     * Gets the index of the first loaded terrain chunk.
+     * @return The index of the first chunk.
+     */
+    public int getFirstChunk() {
+        return firstChunk;
+    }
+
+    /**
+     * Gets the index of the last loaded terrain chunk.
+     * @return The index of the last chunk.
+     */
+    public int getLastChunk() {
+        return lastChunk;
+    }
+
+    /**
+     * Gets the index of the first column whose height is kept.
+     * @return The index of the first column.
+     */
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Gets the ground heights of the loaded columns.
+     * @return The ground heights.
+     */
+    public float[] getHeights() {
+        return heights;
+    }
+
+    /**
+     * Gets the trunk x-coordinates of the loaded trees.
+     * @return The trunk x-coordinates.
+     */
+    public int[] getTreeXs() {
+        return treeXs;
+    }
+
+    /**
+     * Gets the eaten fruits of the loaded trees.
+     * @return One eaten-fruit mask per tree, in the order of getTreeXs.
+     */
+    public long[] getEatenFruitMasks() {
+        return eatenFruitMasks;
+    }
+}
@@ -0,0 +1,205 @@
+package pepse.world.daynight;
+
+import static pepse.world.Constants.*;
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.ColorSupplier;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A layer of clouds that is moved and drawn by a single GameObject in camera coordinates.
+ * Every cloud is a few numbers: its position, its speed, its shape and its shade. The cells of the shapes and
+ * the cloud shades are built once and shared by all the clouds, and a cloud that leaves the right edge of the
+ * window comes back from the left with a new shape, speed and altitude, so the cost of the sky only depends
+ * on the number of visible cells.
+ */
+public class CloudLayer extends GameObject {
+    private final Vector2 windowDimensions;
+    private final int[][] shapeColumns;
+    private final int[][] shapeRows;
+    private final int[] shapeWidths;
+    private final Color[] shades = new Color[CLOUD_PALETTE_SIZE];
+    private final float baseSpeed;
+    private final Random random;
+    private final float[] x;
+    private final float[] y;
+    private final float[] speed;
+    private final int[] shape;
+    private final int[] shadeOffset;
+
+    /**
+     * Creates a CloudLayer object.
+     * @param windowDimensions The dimensions of the window.
+     * @param cloudCount The number of clouds.
+     * @param seed The seed of the shapes, speeds and altitudes of the clouds.
+     */
+    public CloudLayer(Vector2 windowDimensions, int cloudCount, long seed) {
+        super(Vector2.ZERO, windowDimensions, null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        renderer().setRenderable(this::renderClouds);
+        this.windowDimensions = windowDimensions;
+        this.random = new Random(seed);
+        // like the single cloud before, a cloud crosses the window in CLOUD_TRANSLATION_TIME on average
+        this.baseSpeed = (windowDimensions.x() + CLOUD_WIDTH) / CLOUD_TRANSLATION_TIME;
+        int shapeCount = CLOUD_SHAPES.size();
+        shapeColumns = new int[shapeCount][];
+        shapeRows = new int[shapeCount][];
+        shapeWidths = new int[shapeCount];
+        for (int s = 0; s < shapeCount; s++) {
+            flattenShape(s, CLOUD_SHAPES.get(s));
+        }
+        for (int i = 0; i < CLOUD_PALETTE_SIZE; i++) {
+            shades[i] = ColorSupplier.approximateMonoColor(BASE_CLOUD_COLOR);
+        }
+        x = new float[cloudCount];
+        y = new float[cloudCount];
+        speed = new float[cloudCount];
+        shape = new int[cloudCount];
+        shadeOffset = new int[cloudCount];
+        for (int i = 0; i < cloudCount; i++) {
+            recycle(i);
+            // spread the first clouds over the window instead of starting them all at the left edge
+            x[i] = random.nextFloat() * windowDimensions.x() - shapeWidths[shape[i]];
+        }
+    }
+
+    /**
+     * Keeps the columns and rows of the filled cells of a shape.
+     * @param index The index of the shape.
+     * @param cloudShape The rows of the shape, CLOUD_SQUARE_EXISTS marks a filled cell.
+     */
+    private void flattenShape(int index, List<List<Integer>> cloudShape) {
+        int cells = 0;
+        int width = 0;
+        for (List<Integer> row : cloudShape) {
+            width = Math.max(width, row.size());
+            for (int cell : row) {
+                if (cell == CLOUD_SQUARE_EXISTS) {
+                    cells++;
+                }
+            }
+        }
+        shapeColumns[index] = new int[cells];
+        shapeRows[index] = new int[cells];
+        shapeWidths[index] = width * BLOCK_SIZE;
+        int cell = 0;
+        for (int i = 0; i < cloudShape.size(); i++) {
+            for (int j = 0; j < cloudShape.get(i).size(); j++) {
+                if (cloudShape.get(i).get(j) == CLOUD_SQUARE_EXISTS) {
+                    shapeColumns[index][cell] = j;
+                    shapeRows[index][cell] = i;
+                    cell++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives a cloud a new shape, speed and altitude, and puts it just left of the window.
+     * @param cloud The index of the cloud.
+     */
+    private void recycle(int cloud) {
+        shape[cloud] = random.nextInt(CLOUD_SHAPES.size());
+        speed[cloud] = baseSpeed * (CLOUD_MIN_SPEED_FACTOR +
+                random.nextFloat() * (CLOUD_MAX_SPEED_FACTOR - CLOUD_MIN_SPEED_FACTOR));
+        y[cloud] = CLOUD_HEIGHT + random.nextFloat() * CLOUD_ALTITUDE_RANGE;
+        x[cloud] = -shapeWidths[shape[cloud]];
+        shadeOffset[cloud] = random.nextInt(CLOUD_PALETTE_SIZE);
+    }
+
+    /**
+     * Moves every cloud and recycles the ones that left the window.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        for (int i = 0; i < x.length; i++) {
+            x[i] += speed[i] * deltaTime;
+            if (x[i] > windowDimensions.x()) {
+                recycle(i);
+            }
+        }
+    }
+
+    /**
+     * Draws every cell of every cloud.
+     * @param g The graphics to draw on.
+     * @param topLeftCorner The top left corner of the layer on the screen.
+     * @param dimensions The dimensions of the layer.
+     * @param degreesCounterClockwise Ignored.
+     * @param isFlippedHorizontally Ignored.
+     * @param isFlippedVertically Ignored.
+     * @param opaqueness The opaqueness of the layer.
+     */
+    private void renderClouds(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                              double degreesCounterClockwise, boolean isFlippedHorizontally,
+                              boolean isFlippedVertically, double opaqueness) {
+        for (int i = 0; i < x.length; i++) {
+            int[] columns = shapeColumns[shape[i]];
+            int[] rows = shapeRows[shape[i]];
+            for (int cell = 0; cell < columns.length; cell++) {
+                g.setColor(shades[(shadeOffset[i] + cell) % CLOUD_PALETTE_SIZE]);
+                g.fillRect((int) (topLeftCorner.x() + x[i]) + columns[cell] * BLOCK_SIZE,
+                        (int) (topLeftCorner.y() + y[i]) + rows[cell] * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Returns the cloud whose middle is closest to a given x-coordinate.
+     * @param screenX The x-coordinate, in camera coordinates.
+     * @return The index of the closest cloud.
+     */
+    public int closestCloud(float screenX) {
+        int closest = 0;
+        float closestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < x.length; i++) {
+            float distance = Math.abs(x[i] + shapeWidths[shape[i]] / 2f - screenX);
+            if (distance < closestDistance) {
+                closest = i;
+                closestDistance = distance;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Gets the number of clouds.
+     * @return The number of clouds.
+     */
+    public int getCloudCount() {
+        return x.length;
+    }
+
+    /**
+     * Gets the x-coordinate of the left edge of a cloud.
+     * @param cloud The index of the cloud.
+     * @return The x-coordinate of the cloud, in camera coordinates.
+     */
+    public float getCloudX(int cloud) {
+        return x[cloud];
+    }
+
+    /**
+     * Gets the y-coordinate of the top of a cloud.
+     * @param cloud The index of the cloud.
+     * @return The y-coordinate of the cloud, in camera coordinates.
+     */
+    public float getCloudY(int cloud) {
+        return y[cloud];
+    }
+
+    /**
+     * Gets the horizontal speed of a cloud.
+     * @param cloud The index of the cloud.
+     * @return The speed of the cloud in pixels per second.
+     */
+    public float getCloudSpeed(int cloud) {
+        return speed[cloud];
+    }
+}
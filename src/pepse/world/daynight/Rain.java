@@ -0,0 +1,211 @@
+package pepse.world.daynight;
+
+import static pepse.world.Constants.*;
+import danogl.GameObject;
+import danogl.components.CoordinateSpace;
+import danogl.util.Vector2;
+import pepse.util.FixedTimestep;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.util.Random;
+
+/**
+ * A rain particle system drawn by a single GameObject in camera coordinates.
+ * The drops live in primitive buffers with a hard capacity: spawning and expiring a drop only moves numbers,
+ * and a drop that does not fit is dropped and counted. Like the drop blocks it replaces, a drop drifts with its
+ * cloud, falls the height of the window in VERTICAL_TRANSLATION_TIME and fades out over FADE_TRANSITION_TIME.
+ * The drops move in fixed simulation steps, and are drawn between their last two positions.
+ */
+public class Rain extends GameObject {
+    private static final int ALPHA_LEVELS = 64;
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] previousX;
+    private final float[] previousY;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] alpha;
+    private final float[] age;
+    private final Color[] dropColors = new Color[ALPHA_LEVELS + 1];
+    private final float fallSpeed;
+    private final Random random;
+    private final FixedTimestep simulation = new FixedTimestep(SIMULATION_RATE, MAX_SIMULATION_STEPS);
+    private int liveCount;
+    private long spawned;
+    private long overflowed;
+
+    /**
+     * Creates a Rain object.
+     * @param windowDimensions The dimensions of the window.
+     * @param capacity The maximal number of drops alive at the same time.
+     * @param seed The seed of the drops, so a replayed session rains the same drops.
+     */
+    public Rain(Vector2 windowDimensions, int capacity, long seed) {
+        super(Vector2.ZERO, windowDimensions, null);
+        setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        renderer().setRenderable(this::renderDrops);
+        this.capacity = capacity;
+        this.random = new Random(seed);
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.previousX = new float[capacity];
+        this.previousY = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.alpha = new float[capacity];
+        this.age = new float[capacity];
+        this.fallSpeed = windowDimensions.y() / VERTICAL_TRANSLATION_TIME;
+        // the drop color at every alpha level, so drawing a drop allocates no Color
+        for (int i = 0; i <= ALPHA_LEVELS; i++) {
+            dropColors[i] = new Color(BASE_DROPS_COLOR.getRed(), BASE_DROPS_COLOR.getGreen(),
+                    BASE_DROPS_COLOR.getBlue(), 255 * i / ALPHA_LEVELS);
+        }
+    }
+
+    /**
+     * Spawns a shower of drops under a cloud: every cell of a DROP_ARRAY_SIZE square gets a drop with
+     * probability DROP_CHANCE.
+     * @param originX The x-coordinate of the top left corner of the cloud, in camera coordinates.
+     * @param originY The y-coordinate of the top left corner of the cloud, in camera coordinates.
+     * @param driftSpeed The horizontal speed of the cloud.
+     */
+    public void spawnShower(float originX, float originY, float driftSpeed) {
+        for (int i = 0; i < DROP_ARRAY_SIZE; i++) {
+            for (int j = 0; j < DROP_ARRAY_SIZE; j++) {
+                if (random.nextDouble() < DROP_CHANCE) {
+                    spawn(originX + j * BLOCK_SIZE, originY + i * BLOCK_SIZE, driftSpeed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Spawns a single drop, or counts it as overflowed if the buffers are full.
+     * @param dropX The x-coordinate of the drop.
+     * @param dropY The y-coordinate of the drop.
+     * @param driftSpeed The horizontal speed of the drop.
+     */
+    private void spawn(float dropX, float dropY, float driftSpeed) {
+        if (liveCount == capacity) {
+            overflowed++;
+            return;
+        }
+        x[liveCount] = dropX;
+        y[liveCount] = dropY;
+        previousX[liveCount] = dropX;
+        previousY[liveCount] = dropY;
+        vx[liveCount] = driftSpeed;
+        vy[liveCount] = fallSpeed;
+        alpha[liveCount] = FADE_INIT_VALUE;
+        age[liveCount] = 0;
+        liveCount++;
+        spawned++;
+    }
+
+    /**
+     * Runs the simulation steps of the frame.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        for (int steps = simulation.advance(deltaTime); steps > 0; steps--) {
+            step(simulation.getStepTime());
+        }
+    }
+
+    /**
+     * Advances every live drop by a single step and expires the ones that finished falling.
+     * @param deltaTime The time of the step.
+     */
+    public void step(float deltaTime) {
+        float fadePerSecond = (FADE_FINAL_VALUE - FADE_INIT_VALUE) / FADE_TRANSITION_TIME;
+        int i = 0;
+        while (i < liveCount) {
+            age[i] += deltaTime;
+            if (age[i] >= VERTICAL_TRANSLATION_TIME) {
+                expire(i);
+                continue;
+            }
+            previousX[i] = x[i];
+            previousY[i] = y[i];
+            x[i] += vx[i] * deltaTime;
+            y[i] += vy[i] * deltaTime;
+            alpha[i] = Math.max(0, FADE_INIT_VALUE + fadePerSecond * age[i]);
+            i++;
+        }
+    }
+
+    /**
+     * Expires a drop by moving the last live drop into its slot.
+     * @param index The index of the drop.
+     */
+    private void expire(int index) {
+        int last = --liveCount;
+        x[index] = x[last];
+        y[index] = y[last];
+        previousX[index] = previousX[last];
+        previousY[index] = previousY[last];
+        vx[index] = vx[last];
+        vy[index] = vy[last];
+        alpha[index] = alpha[last];
+        age[index] = age[last];
+    }
+
+    /**
+     * Draws every live drop, between its position at the last step and the one before it.
+     * @param g The graphics to draw on.
+     * @param topLeftCorner The top left corner of the rain object on the screen.
+     * @param dimensions The dimensions of the rain object.
+     * @param degreesCounterClockwise Ignored.
+     * @param isFlippedHorizontally Ignored.
+     * @param isFlippedVertically Ignored.
+     * @param opaqueness The opaqueness of the rain object.
+     */
+    private void renderDrops(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        float interpolation = simulation.getAlpha();
+        for (int i = 0; i < liveCount; i++) {
+            float dropX = previousX[i] + (x[i] - previousX[i]) * interpolation;
+            float dropY = previousY[i] + (y[i] - previousY[i]) * interpolation;
+            g.setColor(dropColors[Math.round(alpha[i] * (float) opaqueness * ALPHA_LEVELS)]);
+            g.fillRect((int) (topLeftCorner.x() + dropX), (int) (topLeftCorner.y() + dropY),
+                    DROP_DIMENSION_SIZE, DROP_DIMENSION_SIZE);
+        }
+    }
+
+    /**
+     * Gets the number of drops that are alive.
+     * @return The live count.
+     */
+    public int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Gets the maximal number of drops alive at the same time.
+     * @return The capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of drops that were spawned.
+     * @return The number of spawned drops.
+     */
+    public long getSpawned() {
+        return spawned;
+    }
+
+    /**
+     * Gets the number of drops that were dropped because the buffers were full.
+     * @return The number of overflowed drops.
+     */
+    public long getOverflowed() {
+        return overflowed;
+    }
+}
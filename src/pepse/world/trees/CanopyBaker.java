@@ -0,0 +1,136 @@
+package pepse.world.trees;
+
+import static pepse.world.Constants.*;
+import danogl.gui.rendering.ImageRenderable;
+import pepse.util.ColorSupplier;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bakes the leaves of a tree into a single image, so the whole canopy is drawn as one renderable.
+ * The images are kept in a small least-recently-used cache keyed by what the image is made of, the leaves and
+ * their palette color, so a tree that is derived again, after its chunk came back or after a resume, reuses
+ * its image.
+ */
+public class CanopyBaker {
+    private static final int CANOPY_PIXELS = NUM_OF_LEAVES * BLOCK_SIZE;
+
+    private final Map<CanopyKey, ImageRenderable> cache;
+    private long bakes;
+    private long hits;
+
+    /**
+     * Creates a CanopyBaker object.
+     * @param capacity The number of canopy images kept for reuse.
+     */
+    public CanopyBaker(int capacity) {
+        // an access-ordered map that drops its least recently used image once it is full
+        this.cache = new LinkedHashMap<>(capacity + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CanopyKey, ImageRenderable> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the canopy image of a tree, baking it if it is not cached.
+     * @param blueprint The blueprint of the tree.
+     * @param leafColor The color of the leaves of the tree.
+     * @return The canopy renderable.
+     */
+    public synchronized ImageRenderable canopyOf(TreeBlueprint blueprint, Color leafColor) {
+        Color paletteColor = ColorSupplier.quantize(leafColor);
+        CanopyKey key = new CanopyKey(blueprint.getLeafMask(), paletteColor.getRGB());
+        ImageRenderable renderable = cache.get(key);
+        if (renderable != null) {
+            hits++;
+            return renderable;
+        }
+        renderable = new ImageRenderable(bake(blueprint, paletteColor));
+        cache.put(key, renderable);
+        bakes++;
+        return renderable;
+    }
+
+    /**
+     * Draws the leaf cells of a blueprint on a transparent image.
+     * @param blueprint The blueprint of the tree.
+     * @param paletteColor The palette color of the leaves, the same as a leaf block of the same tree.
+     * @return The canopy image.
+     */
+    private static BufferedImage bake(TreeBlueprint blueprint, Color paletteColor) {
+        BufferedImage image = new BufferedImage(CANOPY_PIXELS, CANOPY_PIXELS, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(paletteColor);
+        for (int i = 0; i < NUM_OF_LEAVES; i++) {
+            for (int j = 0; j < NUM_OF_LEAVES; j++) {
+                if (blueprint.hasLeaf(i, j)) {
+                    graphics.fillRect(j * BLOCK_SIZE, i * BLOCK_SIZE, BLOCK_SIZE, BLOCK_SIZE);
+                }
+            }
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    /**
+     * Gets the number of canopy images that were baked.
+     * @return The number of bakes.
+     */
+    public long getBakes() {
+        return bakes;
+    }
+
+    /**
+     * Gets the number of canopy images that were served from the cache.
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * The value a canopy image is baked from: the leaf cells and their palette color.
+     */
+    private static final class CanopyKey {
+        private final long leafMask;
+        private final int rgb;
+
+        /**
+         * Creates a CanopyKey object.
+         * @param leafMask The leaves of the canopy, one bit per cell.
+         * @param rgb The palette color of the leaves.
+         */
+        CanopyKey(long leafMask, int rgb) {
+            this.leafMask = leafMask;
+            this.rgb = rgb;
+        }
+
+        /**
+         * Returns whether another key bakes the same image.
+         * @param other The other object.
+         * @return True if the other object is a key with the same leaves and color.
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CanopyKey)) {
+                return false;
+            }
+            CanopyKey key = (CanopyKey) other;
+            return leafMask == key.leafMask && rgb == key.rgb;
+        }
+
+        /**
+         * Returns the hash code of the key.
+         * @return The hash code.
+         */
+        @Override
+        public int hashCode() {
+            return Long.hashCode(leafMask) * 31 + rgb;
+        }
+    }
+}
@@ -1,34 +1,57 @@
 package pepse.world.trees;
 
+import static pepse.world.Constants.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import danogl.GameObject;
 import danogl.collisions.Layer;
-import danogl.util.Vector2;
+import pepse.util.SplitMix;
 import pepse.world.Block;
-import java.util.Objects;
-import java.util.Random;
+import pepse.world.ChunkLayout;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
  * A class to create the Flora based on Tree GameObjects.
+ * The trees are kept in an ordered index keyed by their trunk x-coordinate, so adding, evicting and
+ * querying a range of trees costs a logarithmic lookup plus the trees in the range. Trees that leave the
+ * range are kept only as TreeBlueprints and are rebuilt from them when they come back.
  */
 public class Flora {
-    private final static double TREE_CHANCE = 0.001;
-    private final static double ADDED_TREE_CHANCE = 0.05;
+    // one tree in ten columns; the old per-pixel chances gave 0.03 trees per column in the first view and
+    // overlapping trees in most columns of the streamed ground, so this density is a deliberate middle
+    private final static double TREE_CHANCE = 0.1;
     private final Function<Float, Float> groundHeightAt;
-    private final ArrayList<Tree> treeList = new ArrayList<>();
-    private Random random;
+    private final TreeMap<Integer, Tree> trees = new TreeMap<>();
+    private final TreeMap<Integer, TreeBlueprint> blueprints = new TreeMap<>();
     private final int seed;
+    private final CanopyBaker canopyBaker;
+    private final TreeMap<Integer, Long> pendingEatenFruits = new TreeMap<>();
+    private final ArrayList<Tree> removedTrees = new ArrayList<>();
 
     /**
      * Creates a Flora object.
      * @param groundHeightAt The function that returns the height of the ground at a given x-coordinate.
+     * @param seed The seed of the world.
      */
     public Flora(Function<Float, Float> groundHeightAt, int seed) {
+        this(groundHeightAt, seed, BAKE_TREE_CANOPIES);
+    }
+
+    /**
+     * Creates a Flora object.
+     * @param groundHeightAt The function that returns the height of the ground at a given x-coordinate.
+     * @param seed The seed of the world.
+     * @param bakeCanopies Whether the leaves of a tree are drawn from one baked image instead of a block
+     *                     per leaf.
+     */
+    public Flora(Function<Float, Float> groundHeightAt, int seed, boolean bakeCanopies) {
         this.seed = seed;
         this.groundHeightAt = groundHeightAt;
+        this.canopyBaker = bakeCanopies ? new CanopyBaker(CANOPY_CACHE_CAPACITY) : null;
     }
 
     /**
@@ -38,16 +61,13 @@ public class Flora {
      * @return The list of Tree GameObjects.
      */
     public ArrayList<Tree> createInRange(int minX, int maxX) {
-        int range = maxX - minX + 1;
-        for (int i = 0; i < range; i++) {
-            random = new Random(Objects.hash(minX+i, seed));
-            if (random.nextDouble() < TREE_CHANCE) {
-                Vector2 topLeftCorner = new Vector2(minX + i, groundHeightAt.apply((float) minX + i));
-                Tree tree = new Tree(topLeftCorner);
-                treeList.add(tree);
+        ArrayList<Tree> createdTrees = new ArrayList<>();
+        for (int x = firstColumnX(minX); x <= maxX; x += Block.SIZE) {
+            if (hasTreeAt(x / Block.SIZE, seed) && !trees.containsKey(x)) {
+                createdTrees.add(plantTree(x));
             }
         }
-        return treeList;
+        return createdTrees;
     }
 
     /**
@@ -57,65 +77,195 @@ public class Flora {
      * @param addTreeParts The consumer to add the parts of the tree.
      */
     public void addInRange(int minX, int maxX, Consumer<Tree> addTreeParts) {
-        for (int i = minX; i < maxX + 1; i++) {
-            random = new Random(Objects.hash(i, seed));
-            if (random.nextDouble() < ADDED_TREE_CHANCE) {
-                Vector2 topLeftCorner = new Vector2(i, groundHeightAt.apply((float) i));
-                Tree tree = new Tree(topLeftCorner);
-                treeList.add(tree);
-                addTreeParts.accept(tree);
+        for (int x = firstColumnX(minX); x <= maxX; x += Block.SIZE) {
+            if (blueprints.containsKey(x) || hasTreeAt(x / Block.SIZE, seed)) {
+                addTree(x, addTreeParts);
             }
         }
     }
 
     /**
-     * Removes the trees that are out of the given range.
-     * @param treesToKeep The list of trees to keep.
+     * Returns the x-coordinate of the first block column at or after a given x-coordinate.
+     * @param x The x-coordinate.
+     * @return The x-coordinate of the first block column that is not left of x.
+     */
+    private static int firstColumnX(int x) {
+        return -Math.floorDiv(-x, Block.SIZE) * Block.SIZE;
+    }
+
+    /**
+     * Creates a tree at a given x-coordinate and adds its parts.
+     * @param x The x-coordinate of the tree.
+     * @param addTreeParts The consumer to add the parts of the tree.
+     */
+    private void addTree(int x, Consumer<Tree> addTreeParts) {
+        if (!trees.containsKey(x)) {
+            addTreeParts.accept(plantTree(x));
+        }
+    }
+
+    /**
+     * Creates a tree at a given x-coordinate and puts it in the index.
+     * @param x The x-coordinate of the tree.
+     * @return The new tree.
+     */
+    private Tree plantTree(int x) {
+        TreeBlueprint blueprint = blueprints.get(x);
+        if (blueprint == null) {
+            blueprint = TreeBlueprint.derive(seed, x, groundHeightAt.apply((float) x));
+            blueprints.put(x, blueprint);
+        }
+        Tree tree = new Tree(blueprint, canopyBaker);
+        trees.put(tree.getTrunkX(), tree);
+        Long eatenFruits = pendingEatenFruits.remove(x);
+        if (eatenFruits != null) {
+            tree.eatFruits(eatenFruits);
+        }
+        return tree;
+    }
+
+    /**
+     * Remembers the eaten fruits of saved trees, and eats them when the trees are planted.
+     * @param treeXs The trunk x-coordinates of the trees.
+     * @param eatenFruitMasks The eaten fruits of every tree, as made by Tree.getEatenFruitMask.
+     */
+    public void restoreEatenFruits(int[] treeXs, long[] eatenFruitMasks) {
+        for (int i = 0; i < treeXs.length; i++) {
+            pendingEatenFruits.put(treeXs[i], eatenFruitMasks[i]);
+        }
+    }
+
+    /**
+     * Returns whether a tree stands on a given block column.
+     * The answer is a pure function of its arguments: it allocates nothing and can be asked from any thread.
+     * @param column The index of the block column.
+     * @param seed The seed of the world.
+     * @return True if a tree stands on the given column.
+     */
+    public static boolean hasTreeAt(int column, int seed) {
+        return SplitMix.unitDouble(SplitMix.hash(seed, column)) < TREE_CHANCE;
+    }
+
+    /**
+     * Keeps the tree blueprints of a chunk that was computed ahead of time.
+     * @param layout The layout of the chunk.
+     */
+    public void acceptLayout(ChunkLayout layout) {
+        for (TreeBlueprint blueprint : layout.getTrees()) {
+            blueprints.putIfAbsent(blueprint.getTrunkX(), blueprint);
+        }
+    }
+
+    /**
+     * Removes the parts of a tree from the game.
+     * @param tree The tree to remove.
      * @param removeGameObjectPredicate The predicate to remove a GameObject.
      */
-    private void removeTree(ArrayList<Tree> treesToKeep,
-                            BiPredicate<GameObject, Integer> removeGameObjectPredicate) {
-        for (Tree tree : treeList) {
-            if (!treesToKeep.contains(tree)) {
-                for (GameObject block : tree.getWoodBlocks()) {
-                    removeGameObjectPredicate.test(block, Layer.STATIC_OBJECTS);
-                }
-                for (ArrayList<Block> row : tree.getLeaveBlocks()) {
-                    for (GameObject block : row) {
-                        if (block != null) {
-                            removeGameObjectPredicate.test(block, Layer.BACKGROUND);
-                        }
-                    }
+    private void removeTree(Tree tree, BiPredicate<GameObject, Integer> removeGameObjectPredicate) {
+        for (GameObject block : tree.getWoodBlocks()) {
+            removeGameObjectPredicate.test(block, Layer.STATIC_OBJECTS);
+        }
+        if (tree.getCanopy() != null) {
+            removeGameObjectPredicate.test(tree.getCanopy(), Layer.BACKGROUND);
+        }
+        for (ArrayList<Block> row : tree.getLeaveBlocks()) {
+            for (GameObject block : row) {
+                if (block != null) {
+                    removeGameObjectPredicate.test(block, Layer.BACKGROUND);
                 }
-                for (ArrayList<Fruit> row : tree.getFruitBlocks()) {
-                    for (Fruit fruit : row) {
-                        if (fruit != null) {
-                            removeGameObjectPredicate.test(fruit, Layer.STATIC_OBJECTS);
-                        }
-                    }
+            }
+        }
+        for (ArrayList<Fruit> row : tree.getFruitBlocks()) {
+            for (Fruit fruit : row) {
+                if (fruit != null) {
+                    removeGameObjectPredicate.test(fruit, Layer.STATIC_OBJECTS);
                 }
             }
         }
+        // the game removes the parts at the end of the frame, so the tree is released with the next update
+        removedTrees.add(tree);
+    }
+
+    /**
+     * Returns the trees that were removed before this frame to their pools. Called once per frame, before
+     * anything is added, by every caller of deleteOutOfRange.
+     */
+    public void releaseRemovedTrees() {
+        for (Tree tree : removedTrees) {
+            tree.release();
+        }
+        removedTrees.clear();
     }
 
     /**
-     * Deletes the trees that are out of the given range.
+     * Removes every tree of an index view from the game and from the index.
+     * @param outOfRange A view of the index that holds the trees to remove.
+     * @param removeGameObjectPredicate The predicate to remove a GameObject.
+     */
+    private void evict(Map<Integer, Tree> outOfRange,
+                       BiPredicate<GameObject, Integer> removeGameObjectPredicate) {
+        for (Tree tree : outOfRange.values()) {
+            removeTree(tree, removeGameObjectPredicate);
+        }
+        outOfRange.clear();
+    }
+
+    /**
+     * Deletes the trees that are out of the given range. The deleted trees keep their parts until the caller
+     * runs releaseRemovedTrees, once the game removed the parts, so every caller must run it afterwards.
      * @param minX The minimum x-coordinate.
      * @param maxX The maximum x-coordinate.
      * @param removeGameObjectPredicate The predicate to remove a GameObject.
      */
     public void deleteOutOfRange(int minX, int maxX, BiPredicate<GameObject,
             Integer> removeGameObjectPredicate) {
-        ArrayList<Tree> treesToKeep = new ArrayList<>();
-        for (int i = minX; i <= maxX; i++) {
-            for (Tree currentTree : treeList) {
-                if (currentTree.getWoodBlocks().get(0).getTopLeftCorner().x() == i) {
-                    treesToKeep.add(currentTree);
-                    break; // because there is only one tree at each x-coordinate
-                }
-            }
-        }
-        removeTree(treesToKeep, removeGameObjectPredicate);
+        evict(trees.headMap(minX, false), removeGameObjectPredicate);
+        evict(trees.tailMap(maxX, false), removeGameObjectPredicate);
+        // forget the blueprints that are far away from the range, they can be derived again
+        blueprints.headMap(minX - BLUEPRINT_RETAIN_DISTANCE).clear();
+        blueprints.tailMap(maxX + BLUEPRINT_RETAIN_DISTANCE).clear();
+    }
+
+    /**
+     * Gets the trees whose trunk is in a given range.
+     * @param minX The minimum x-coordinate.
+     * @param maxX The maximum x-coordinate.
+     * @return A view of the trees in the range, ordered by their trunk x-coordinate.
+     */
+    public Collection<Tree> treesInRange(int minX, int maxX) {
+        return trees.subMap(minX, true, maxX, true).values();
+    }
+
+    /**
+     * Gets the baker of the tree canopies.
+     * @return The canopy baker, or null if every leaf is its own block.
+     */
+    public CanopyBaker getCanopyBaker() {
+        return canopyBaker;
+    }
+
+    /**
+     * Gets every tree in the index.
+     * @return A view of the trees, ordered by their trunk x-coordinate.
+     */
+    public Collection<Tree> getTrees() {
+        return trees.values();
+    }
+
+    /**
+     * Gets the number of trees in the index.
+     * @return The number of trees.
+     */
+    public int getTreeCount() {
+        return trees.size();
+    }
+
+    /**
+     * Gets the number of trees that are known as blueprints, built or not.
+     * @return The number of blueprints.
+     */
+    public int getBlueprintCount() {
+        return blueprints.size();
     }
 
 }
@@ -1,23 +1,38 @@
 package pepse.world.trees;
 
+import static pepse.world.Constants.*;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.components.GameObjectPhysics;
-import danogl.components.ScheduledTask;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
+import pepse.util.ObjectPool;
+import pepse.util.TimingWheel;
 
 /**
  * A class that creates a fruit GameObject.
+ * The fruits of the trees are borrowed from a shared pool with obtain, and given back with release
+ * once they were removed from the game. The respawns of every eaten fruit share a single timing wheel, which
+ * the world turns once per simulation step.
  */
 public class Fruit extends GameObject {
     private static final int WAIT_TIME = 30;
-    private final Renderable renderable;
-    private final Vector2 dimensions;
+    private static final ObjectPool<Fruit> POOL = new ObjectPool<>(
+            () -> new Fruit(Vector2.ZERO, Vector2.ZERO, null),
+            Integer.getInteger("pepse.fruitPoolCapacity", FRUIT_POOL_CAPACITY));
+    private static final TimingWheel<Fruit> RESPAWNS = new TimingWheel<>(FRUIT_RESPAWN_SLOTS,
+            FRUIT_RESPAWN_RESOLUTION, FRUIT_POOL_CAPACITY);
+
+    private Renderable renderable;
+    private Vector2 dimensions;
+    private int respawnTimer = TimingWheel.NO_TIMER;
+    private boolean dormant;
+    private boolean eaten;
 
     /**
      * Creates a fruit GameObject, which is a rectangle with a specified renderable.
      * @param topLeftCorner The top left corner of the fruit.
+     * @param dimensions The dimensions of the fruit.
      * @param renderable The renderable of the fruit.
      */
     public Fruit(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
@@ -28,6 +43,92 @@ public class Fruit extends GameObject {
         physics().setMass(GameObjectPhysics.IMMOVABLE_MASS);
     }
 
+    /**
+     * Borrows a fruit from the pool and places it.
+     * @param topLeftCorner The top left corner of the fruit.
+     * @param dimensions The dimensions of the fruit.
+     * @param renderable The renderable of the fruit.
+     * @return A fruit that is ready to be added to the game.
+     */
+    public static Fruit obtain(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        Fruit fruit = POOL.borrow();
+        fruit.renderable = renderable;
+        fruit.dimensions = dimensions;
+        fruit.setDimensions(dimensions);
+        fruit.setTopLeftCorner(topLeftCorner);
+        fruit.renderer().setRenderable(renderable);
+        return fruit;
+    }
+
+    /**
+     * Resets the fruit and gives it back to the pool. The fruit must already be removed from the game,
+     * and must not be used after this call.
+     */
+    public void release() {
+        // an evicted fruit does not respawn
+        RESPAWNS.cancel(respawnTimer);
+        respawnTimer = TimingWheel.NO_TIMER;
+        renderable = null;
+        renderer().setRenderable(null);
+        setTag("");
+        dormant = false;
+        eaten = false;
+        POOL.release(this);
+    }
+
+    /**
+     * Suspends or resumes the fruit. A dormant fruit collides with nothing; its respawn time keeps running.
+     * @param dormant Whether the fruit is dormant.
+     */
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
+    }
+
+    /**
+     * Updates the fruit, unless it is dormant.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        if (!dormant) {
+            super.update(deltaTime);
+        }
+    }
+
+    /**
+     * Returns whether the fruit collides with another GameObject; a dormant fruit collides with nothing.
+     * @param other The other GameObject.
+     * @return True if the two should collide.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return !dormant && super.shouldCollideWith(other);
+    }
+
+    /**
+     * Turns the respawn wheel, making the fruits whose wait is over reappear.
+     * @param deltaTime The time that passed.
+     */
+    public static void advanceRespawns(float deltaTime) {
+        RESPAWNS.advance(deltaTime, Fruit::fruitReappear);
+    }
+
+    /**
+     * Gets the wheel that holds the respawns of the eaten fruits.
+     * @return The respawn wheel.
+     */
+    public static TimingWheel<Fruit> getRespawns() {
+        return RESPAWNS;
+    }
+
+    /**
+     * Gets the pool the fruits are borrowed from.
+     * @return The fruit pool.
+     */
+    public static ObjectPool<Fruit> getPool() {
+        return POOL;
+    }
+
     /**
      * Removes the fruit from the game.
      */
@@ -35,18 +136,35 @@ public class Fruit extends GameObject {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
         if (other.getTag().equals("avatar")) {
-            // make fruit disappear
-            fruitDisappear();
-
-            // make fruit reappear after a short time
-            fruitReappear();
+            eat();
         }
     }
 
+    /**
+     * Makes the fruit disappear, and reappear after a short time.
+     */
+    public void eat() {
+        // make fruit disappear
+        fruitDisappear();
+
+        // make fruit reappear after a short time
+        RESPAWNS.cancel(respawnTimer);
+        respawnTimer = RESPAWNS.schedule(WAIT_TIME, this);
+    }
+
+    /**
+     * Returns whether the fruit was eaten and did not reappear yet.
+     * @return True if the fruit is eaten.
+     */
+    public boolean isEaten() {
+        return eaten;
+    }
+
     /**
      * Makes the fruit disappear.
      */
     private void fruitDisappear() {
+        eaten = true;
         renderer().setRenderable(null);
         this.setDimensions(Vector2.ZERO);
     }
@@ -55,10 +173,9 @@ public class Fruit extends GameObject {
      * Makes the fruit reappear.
      */
     private void fruitReappear() {
-        new ScheduledTask(this,
-                WAIT_TIME,
-                false,
-                () -> {renderer().setRenderable(renderable);
-                    this.setDimensions(dimensions);});
+        respawnTimer = TimingWheel.NO_TIMER;
+        renderer().setRenderable(renderable);
+        this.setDimensions(dimensions);
+        eaten = false;
     }
 }
@@ -4,30 +4,55 @@ import static pepse.world.Constants.*;
 import danogl.gui.rendering.OvalRenderable;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.util.Vector2;
+import java.awt.Color;
 import pepse.util.ColorSupplier;
+import pepse.util.SplitMix;
 import pepse.world.Block;
 import java.util.ArrayList;
-import java.util.Random;
-import danogl.components.Transition;
-import danogl.components.ScheduledTask;
 
 /**
  * A class to create the Tree GameObject.
+ * Everything about the tree comes from its TreeBlueprint, so a tree that is rebuilt from the same
+ * blueprint looks exactly the same.
  */
 public class Tree {
+    private static final long WOOD_COLOR_STREAM = 0;
+    private static final long LEAF_COLOR_STREAM = 1;
+    private static final long FRUIT_COLOR_STREAM = 2;
+    private static final long LEAF_DELAY_STREAM = 3;
+    private static final Vector2 FRUIT_DIMENSIONS = new Vector2(FRUIT_SIZE, FRUIT_SIZE);
+    private static final Vector2 CANOPY_DIMENSIONS = Vector2.ONES.mult(NUM_OF_LEAVES * BLOCK_SIZE);
 
+    private final TreeBlueprint blueprint;
     private final Vector2 topOfTheTree;
     private final ArrayList<Block> woodBlocks = new ArrayList<>();
     private final ArrayList<ArrayList<Block>> leaveBlocks = new ArrayList<>(TREE_SQUARE_SIZE);
     private final ArrayList<ArrayList<Fruit>> fruitBlocks = new ArrayList<>(TREE_SQUARE_SIZE);
+    private final float[] leafPhases = new float[NUM_OF_LEAVES * NUM_OF_LEAVES];
+    private final CanopyBaker canopyBaker;
+    private Block canopy;
+    private float canopyPhase;
+    private boolean dormant;
+
+    /**
+     * Creates a Tree object with a block per leaf.
+     * @param blueprint The blueprint of the tree.
+     */
+    public Tree(TreeBlueprint blueprint) {
+        this(blueprint, null);
+    }
 
     /**
      * Creates a Tree object.
-     * @param topLeftCorner The top left corner of the tree.
+     * @param blueprint The blueprint of the tree.
+     * @param canopyBaker Bakes the leaves into a single canopy block, or null for a block per leaf.
      */
-    public Tree(Vector2 topLeftCorner) {
+    public Tree(TreeBlueprint blueprint, CanopyBaker canopyBaker) {
+        this.blueprint = blueprint;
+        this.canopyBaker = canopyBaker;
+        Vector2 topLeftCorner = new Vector2(blueprint.getTrunkX(), blueprint.getGroundHeight());
         topOfTheTree = new Vector2(topLeftCorner.x(),
-                topLeftCorner.y() - getRandomTreeHeight() * BLOCK_SIZE);
+                topLeftCorner.y() - blueprint.getHeight() * BLOCK_SIZE);
         createTree(topLeftCorner);
     }
 
@@ -55,12 +80,12 @@ public class Tree {
      * @param topLeftCorner The top left corner of the tree.
      */
     private void createWoodBlocks(Vector2 topLeftCorner) {
-        RectangleRenderable renderable =
-                new RectangleRenderable(ColorSupplier.approximateColor(BASE_WOOD_COLOR));
-        for (int i = 0; i < getRandomTreeHeight(); i++) {
+        RectangleRenderable renderable = ColorSupplier.rectangle(ColorSupplier.seededColor(BASE_WOOD_COLOR,
+                SplitMix.hash(blueprint.getColorSeed(), WOOD_COLOR_STREAM)));
+        for (int i = 0; i < blueprint.getHeight(); i++) {
             Vector2 blockPosition = new Vector2(topLeftCorner.x() - BLOCK_SIZE,
                     topLeftCorner.y() - BLOCK_SIZE - i * BLOCK_SIZE);
-            Block block = new Block(blockPosition, renderable);
+            Block block = Block.obtain(blockPosition, renderable);
             block.setTag("wood");
             woodBlocks.add(block);
         }
@@ -72,15 +97,20 @@ public class Tree {
      * @param rectangleStartY The y-coordinate of the start of the rectangle.
      */
     private void createLeaves(int rectangleStartX, int rectangleStartY) {
-        RectangleRenderable renderable =
-                new RectangleRenderable(ColorSupplier.approximateColor(BASE_LEAF_COLOR));
+        Color leafColor = ColorSupplier.seededColor(BASE_LEAF_COLOR,
+                SplitMix.hash(blueprint.getColorSeed(), LEAF_COLOR_STREAM));
+        if (canopyBaker != null) {
+            createCanopy(leafColor, rectangleStartX, rectangleStartY);
+            return;
+        }
+        RectangleRenderable renderable = ColorSupplier.rectangle(leafColor);
 
         for (int i = 0; i < NUM_OF_LEAVES; i++) {
             ArrayList<Block> row = new ArrayList<>(NUM_OF_LEAVES);
             for (int j = 0; j < NUM_OF_LEAVES; j++) {
-                if (Math.random() < LEAF_CHANCES) {
+                if (blueprint.hasLeaf(i, j)) {
                     Block leaf = createLeaf(renderable, rectangleStartX, rectangleStartY, i, j);
-                    addLeafAnimations(leaf);
+                    leafPhases[i * NUM_OF_LEAVES + j] = leafPhase(i * NUM_OF_LEAVES + j);
                     row.add(leaf);
                 } else {
                     row.add(null);
@@ -90,6 +120,19 @@ public class Tree {
         }
     }
 
+    /**
+     * Creates a single block that draws every leaf of the tree from a baked image.
+     * @param leafColor The color of the leaves.
+     * @param rectangleStartX The x-coordinate of the start of the rectangle.
+     * @param rectangleStartY The y-coordinate of the start of the rectangle.
+     */
+    private void createCanopy(Color leafColor, int rectangleStartX, int rectangleStartY) {
+        canopy = Block.obtain(new Vector2(rectangleStartX, rectangleStartY), CANOPY_DIMENSIONS,
+                canopyBaker.canopyOf(blueprint, leafColor));
+        canopy.setTag("leaf");
+        canopyPhase = leafPhase(NUM_OF_LEAVES * NUM_OF_LEAVES);
+    }
+
     /**
      * Creates a single leaf block.
      * @param renderable The renderable for the leaf.
@@ -103,53 +146,19 @@ public class Tree {
                              int row, int col) {
         Vector2 blockPosition = new Vector2(rectangleStartX + col * BLOCK_SIZE,
                 rectangleStartY + row * BLOCK_SIZE);
-        Block leaf = new Block(blockPosition, renderable);
+        Block leaf = Block.obtain(blockPosition, renderable);
         leaf.setTag("leaf");
         return leaf;
     }
 
     /**
-     * Adds animations (angle and width oscillation) to a single leaf.
-     * @param leaf The leaf block to animate.
+     * Computes the phase of the sway of a single leaf.
+     * @param cell The index of the leaf in the canopy square.
+     * @return A delay of up to ANIMATION_DELAY_TIME seconds that is the same every time the tree is built.
      */
-    private void addLeafAnimations(Block leaf) {
-        float delay = (float) (Math.random() * ANIMATION_DELAY_TIME); // Random delay up to 0.8 seconds
-        new ScheduledTask(leaf, delay, false, () -> {
-            addAngleOscillation(leaf);
-            addWidthOscillation(leaf);
-        });
-    }
-
-    /**
-     * Adds angle oscillation animation to a leaf.
-     * @param leaf The leaf block to animate.
-     */
-    private void addAngleOscillation(Block leaf) {
-        new Transition<>(
-                leaf,
-                angle -> leaf.renderer().setRenderableAngle(angle),
-                ANGLE_OSCILLATION_INIT_VALUE, ANGLE_OSCILLATION_FINAL_VALUE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                LEAVE_TRANSITION_TIME, // Duration of the oscillation
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
-    }
-
-    /**
-     * Adds width oscillation animation to a leaf.
-     * @param leaf The leaf block to animate.
-     */
-    private void addWidthOscillation(Block leaf) {
-        new Transition<>(
-                leaf,
-                widthFactor -> leaf.setDimensions(new Vector2(BLOCK_SIZE * widthFactor, BLOCK_SIZE)),
-                WIDTH_OSCILLATION_INIT_VALUE, WIDTH_OSCILLATION_FINAL_VALUE,
-                Transition.LINEAR_INTERPOLATOR_FLOAT,
-                LEAVE_TRANSITION_TIME, // Duration of the oscillation
-                Transition.TransitionType.TRANSITION_BACK_AND_FORTH,
-                null
-        );
+    private float leafPhase(int cell) {
+        long delayHash = SplitMix.hash(SplitMix.hash(blueprint.getColorSeed(), LEAF_DELAY_STREAM), cell);
+        return (float) (SplitMix.unitDouble(delayHash) * ANIMATION_DELAY_TIME);
     }
 
     /**
@@ -159,32 +168,127 @@ public class Tree {
      */
     private void createFruits(int rectangleStartX, int rectangleStartY) {
         // create the fruits of the tree - a 8x8 square where the middle of the square is the top of the tree
-        OvalRenderable ovalRenderable = new OvalRenderable(ColorSupplier.approximateColor(BASE_FRUIT_COLOR));
+        OvalRenderable ovalRenderable = ColorSupplier.oval(ColorSupplier.seededColor(BASE_FRUIT_COLOR,
+                SplitMix.hash(blueprint.getColorSeed(), FRUIT_COLOR_STREAM)));
         for (int i = 0; i < NUM_OF_LEAVES; i++) {
             ArrayList<Fruit> row = new ArrayList<>(NUM_OF_LEAVES);
             for (int j = 0; j < NUM_OF_LEAVES; j++) {
-                // randomly decide if a fruit block should be created
-                if (Math.random() < FRUIT_CHANCES) {
+                // the blueprint decides if a fruit block should be created
+                if (blueprint.hasFruit(i, j)) {
                     Vector2 blockPosition = new Vector2(rectangleStartX + j * BLOCK_SIZE,
                             rectangleStartY + i * BLOCK_SIZE);
                     Fruit fruit =
-                            new Fruit(blockPosition, new Vector2(FRUIT_SIZE, FRUIT_SIZE), ovalRenderable);
+                            Fruit.obtain(blockPosition, FRUIT_DIMENSIONS, ovalRenderable);
                     fruit.setTag("fruit");
                     row.add(fruit);
+                } else {
+                    row.add(null);
                 }
-                row.add(null);
             }
             fruitBlocks.add(row);
         }
     }
 
     /**
-     * Gets a random tree height.
-     * @return The random tree height.
+     * Gives the blocks and fruits of the tree back to their pools. The tree must already be removed from
+     * the game, and must not be used after this call.
      */
-    private int getRandomTreeHeight() {
-        Random random = new Random();
-        return random.nextInt(RANDOM_RANGE) + MIN_TREE_HEIGHT;
+    public void release() {
+        if (canopy != null) {
+            canopy.release();
+            canopy = null;
+        }
+        for (Block block : woodBlocks) {
+            block.release();
+        }
+        for (ArrayList<Block> row : leaveBlocks) {
+            for (Block leaf : row) {
+                if (leaf != null) {
+                    leaf.release();
+                }
+            }
+        }
+        for (ArrayList<Fruit> row : fruitBlocks) {
+            for (Fruit fruit : row) {
+                if (fruit != null) {
+                    fruit.release();
+                }
+            }
+        }
+        woodBlocks.clear();
+        leaveBlocks.clear();
+        fruitBlocks.clear();
+    }
+
+    /**
+     * Suspends or resumes every part of the tree.
+     * @param dormant Whether the tree is dormant.
+     */
+    public void setDormant(boolean dormant) {
+        if (this.dormant == dormant) {
+            return;
+        }
+        this.dormant = dormant;
+        if (canopy != null) {
+            canopy.setDormant(dormant);
+        }
+        for (Block block : woodBlocks) {
+            block.setDormant(dormant);
+        }
+        for (ArrayList<Block> row : leaveBlocks) {
+            for (Block leaf : row) {
+                if (leaf != null) {
+                    leaf.setDormant(dormant);
+                }
+            }
+        }
+        for (ArrayList<Fruit> row : fruitBlocks) {
+            for (Fruit fruit : row) {
+                if (fruit != null) {
+                    fruit.setDormant(dormant);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the tree is dormant.
+     * @return True if the tree is dormant.
+     */
+    public boolean isDormant() {
+        return dormant;
+    }
+
+    /**
+     * Gets the x-coordinate of the left edge of the canopy, the leftmost part of the tree.
+     * @return The left edge of the tree.
+     */
+    public int getMinX() {
+        return blueprint.getTrunkX() - NUM_OF_LEAVES / 2 * BLOCK_SIZE;
+    }
+
+    /**
+     * Gets the x-coordinate of the right edge of the canopy, the rightmost part of the tree.
+     * @return The right edge of the tree.
+     */
+    public int getMaxX() {
+        return blueprint.getTrunkX() + NUM_OF_LEAVES / 2 * BLOCK_SIZE;
+    }
+
+    /**
+     * Gets the blueprint the tree was built from.
+     * @return The blueprint of the tree.
+     */
+    public TreeBlueprint getBlueprint() {
+        return blueprint;
+    }
+
+    /**
+     * Gets the x-coordinate the tree was planted at.
+     * @return The x-coordinate of the trunk.
+     */
+    public int getTrunkX() {
+        return blueprint.getTrunkX();
     }
 
     /**
@@ -203,6 +307,67 @@ public class Tree {
         return leaveBlocks;
     }
 
+    /**
+     * Gets the block that draws the baked leaves of the tree.
+     * @return The canopy block, or null if the tree has a block per leaf.
+     */
+    public Block getCanopy() {
+        return canopy;
+    }
+
+    /**
+     * Gets the phase of the sway of the baked canopy, used by the WindDriver.
+     * @return The phase of the canopy in seconds.
+     */
+    public float getCanopyPhase() {
+        return canopyPhase;
+    }
+
+    /**
+     * Gets the phase of the sway of a leaf, used by the WindDriver.
+     * @param row The row of the leaf.
+     * @param col The column of the leaf.
+     * @return The phase of the leaf in seconds.
+     */
+    public float getLeafPhase(int row, int col) {
+        return leafPhases[row * NUM_OF_LEAVES + col];
+    }
+
+    /**
+     * Gets the fruits of the tree that are eaten, as a mask with the bit row * NUM_OF_LEAVES + col set for
+     * every eaten fruit.
+     * @return The mask of the eaten fruits.
+     */
+    public long getEatenFruitMask() {
+        long mask = 0;
+        for (int i = 0; i < fruitBlocks.size(); i++) {
+            ArrayList<Fruit> row = fruitBlocks.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                Fruit fruit = row.get(j);
+                if (fruit != null && fruit.isEaten()) {
+                    mask |= 1L << (i * NUM_OF_LEAVES + j);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Eats the fruits of a mask made by getEatenFruitMask, so they reappear as if the avatar just ate them.
+     * @param mask The mask of the eaten fruits.
+     */
+    public void eatFruits(long mask) {
+        for (int i = 0; i < fruitBlocks.size(); i++) {
+            ArrayList<Fruit> row = fruitBlocks.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                Fruit fruit = row.get(j);
+                if (fruit != null && (mask & (1L << (i * NUM_OF_LEAVES + j))) != 0) {
+                    fruit.eat();
+                }
+            }
+        }
+    }
+
     /**
      * Gets the list of fruit blocks of the tree.
      * @return The list of fruit blocks of the tree.
@@ -0,0 +1,138 @@
+package pepse.world.trees;
+
+import static pepse.world.Constants.*;
+import pepse.util.SplitMix;
+
+/**
+ * A compact, primitive description of a tree, derived only from the world seed and the trunk x-coordinate.
+ * Bit i of the leaf and fruit masks stands for row i / NUM_OF_LEAVES and column i % NUM_OF_LEAVES of
+ * the canopy square. A tree that is far from the camera is kept only as its blueprint, and building a Tree
+ * from the same blueprint always gives the same tree.
+ */
+public class TreeBlueprint {
+    // above every column index, so the blueprint seed never shares a key with the tree placement of Flora
+    private static final long BLUEPRINT_DOMAIN = 1L << Integer.SIZE;
+    private static final long LEAF_STREAM = 1;
+    private static final long FRUIT_STREAM = 2;
+    private static final long COLOR_STREAM = 3;
+
+    private final int trunkX;
+    private final float groundHeight;
+    private final int height;
+    private final long leafMask;
+    private final long fruitMask;
+    private final long colorSeed;
+
+    /**
+     * Creates a TreeBlueprint object.
+     * @param trunkX The x-coordinate the tree is planted at.
+     * @param groundHeight The height of the ground at the trunk.
+     * @param height The number of wood blocks of the trunk.
+     * @param leafMask The leaves of the canopy, one bit per cell.
+     * @param fruitMask The fruits of the canopy, one bit per cell.
+     * @param colorSeed The seed of the color jitter of the wood, leaves and fruits.
+     */
+    public TreeBlueprint(int trunkX, float groundHeight, int height, long leafMask, long fruitMask,
+                         long colorSeed) {
+        this.trunkX = trunkX;
+        this.groundHeight = groundHeight;
+        this.height = height;
+        this.leafMask = leafMask;
+        this.fruitMask = fruitMask;
+        this.colorSeed = colorSeed;
+    }
+
+    /**
+     * Derives the blueprint of the tree at a given x-coordinate.
+     * @param seed The seed of the world.
+     * @param trunkX The x-coordinate the tree is planted at.
+     * @param groundHeight The height of the ground at the trunk.
+     * @return The blueprint of the tree.
+     */
+    public static TreeBlueprint derive(int seed, int trunkX, float groundHeight) {
+        long treeHash = SplitMix.hash(SplitMix.hash(seed, BLUEPRINT_DOMAIN), trunkX);
+        int height = MIN_TREE_HEIGHT + (int) Long.remainderUnsigned(treeHash, RANDOM_RANGE);
+        long leafStream = SplitMix.hash(treeHash, LEAF_STREAM);
+        long fruitStream = SplitMix.hash(treeHash, FRUIT_STREAM);
+        long leafMask = 0;
+        long fruitMask = 0;
+        for (int cell = 0; cell < NUM_OF_LEAVES * NUM_OF_LEAVES; cell++) {
+            if (SplitMix.unitDouble(SplitMix.hash(leafStream, cell)) < LEAF_CHANCES) {
+                leafMask |= 1L << cell;
+            }
+            if (SplitMix.unitDouble(SplitMix.hash(fruitStream, cell)) < FRUIT_CHANCES) {
+                fruitMask |= 1L << cell;
+            }
+        }
+        return new TreeBlueprint(trunkX, groundHeight, height, leafMask, fruitMask,
+                SplitMix.hash(treeHash, COLOR_STREAM));
+    }
+
+    /**
+     * Returns whether a cell of the canopy has a leaf.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return True if the cell has a leaf.
+     */
+    public boolean hasLeaf(int row, int col) {
+        return (leafMask & (1L << (row * NUM_OF_LEAVES + col))) != 0;
+    }
+
+    /**
+     * Returns whether a cell of the canopy has a fruit.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return True if the cell has a fruit.
+     */
+    public boolean hasFruit(int row, int col) {
+        return (fruitMask & (1L << (row * NUM_OF_LEAVES + col))) != 0;
+    }
+
+    /**
+     * Gets the x-coordinate the tree is planted at.
+     * @return The x-coordinate of the trunk.
+     */
+    public int getTrunkX() {
+        return trunkX;
+    }
+
+    /**
+     * Gets the height of the ground at the trunk.
+     * @return The height of the ground at the trunk.
+     */
+    public float getGroundHeight() {
+        return groundHeight;
+    }
+
+    /**
+     * Gets the number of wood blocks of the trunk.
+     * @return The height of the tree in blocks.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the leaves of the canopy.
+     * @return The leaf mask.
+     */
+    public long getLeafMask() {
+        return leafMask;
+    }
+
+    /**
+     * Gets the fruits of the canopy.
+     * @return The fruit mask.
+     */
+    public long getFruitMask() {
+        return fruitMask;
+    }
+
+    /**
+     * Gets the seed of the color jitter of the tree.
+     * @return The color seed.
+     */
+    public long getColorSeed() {
+        return colorSeed;
+    }
+}
@@ -0,0 +1,97 @@
+package pepse.world.trees;
+
+import static pepse.world.Constants.*;
+import danogl.GameObject;
+import danogl.util.Vector2;
+import pepse.world.Block;
+import java.util.ArrayList;
+
+/**
+ * An invisible GameObject that sways the leaves of the trees in view.
+ * The sway of a leaf is computed from a single clock and the phase of the leaf, so no component is attached
+ * to the leaves and nothing is allocated per frame. Like the leaf transitions it replaces, the angle and the
+ * width go linearly back and forth between their initial and final values every LEAVE_TRANSITION_TIME.
+ */
+public class WindDriver extends GameObject {
+    private static final float HALF_CANOPY_WIDTH = (NUM_OF_LEAVES / 2f + 1) * BLOCK_SIZE;
+
+    private final Flora flora;
+    private final GameObject camera;
+    private final Vector2[] leafDimensions = new Vector2[WIND_WIDTH_STEPS + 1];
+    private float clock;
+
+    /**
+     * Creates a WindDriver object.
+     * @param flora The flora whose trees are swayed.
+     * @param camera The camera, only the leaves of trees in its view are swayed.
+     */
+    public WindDriver(Flora flora, GameObject camera) {
+        super(Vector2.ZERO, Vector2.ZERO, null);
+        this.flora = flora;
+        this.camera = camera;
+        // the leaf widths are quantized, so every width has a single shared Vector2
+        for (int i = 0; i <= WIND_WIDTH_STEPS; i++) {
+            float widthFactor = WIDTH_OSCILLATION_INIT_VALUE +
+                    (WIDTH_OSCILLATION_FINAL_VALUE - WIDTH_OSCILLATION_INIT_VALUE) * i / WIND_WIDTH_STEPS;
+            leafDimensions[i] = new Vector2(BLOCK_SIZE * widthFactor, BLOCK_SIZE);
+        }
+    }
+
+    /**
+     * Advances the clock and sways the leaves of the trees in view.
+     * @param deltaTime The time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        // keep the clock within one period so it does not lose precision on long runs
+        clock = (clock + deltaTime) % (2f * LEAVE_TRANSITION_TIME);
+        float minX = camera.getTopLeftCorner().x() - HALF_CANOPY_WIDTH;
+        float maxX = camera.getTopLeftCorner().x() + camera.getDimensions().x() + HALF_CANOPY_WIDTH;
+        for (Tree tree : flora.treesInRange((int) minX, (int) maxX)) {
+            swayTree(tree);
+        }
+    }
+
+    /**
+     * Sways every leaf of a single tree.
+     * @param tree The tree to sway.
+     */
+    private void swayTree(Tree tree) {
+        Block canopy = tree.getCanopy();
+        if (canopy != null) {
+            // a baked canopy only tilts, and less than a single leaf, so the square does not swing around
+            float progress = swayProgress(clock - tree.getCanopyPhase());
+            canopy.renderer().setRenderableAngle(CANOPY_SWAY_SCALE * (ANGLE_OSCILLATION_INIT_VALUE +
+                    (ANGLE_OSCILLATION_FINAL_VALUE - ANGLE_OSCILLATION_INIT_VALUE) * progress));
+        }
+        ArrayList<ArrayList<Block>> leaves = tree.getLeaveBlocks();
+        for (int i = 0; i < leaves.size(); i++) {
+            ArrayList<Block> row = leaves.get(i);
+            for (int j = 0; j < row.size(); j++) {
+                Block leaf = row.get(j);
+                if (leaf != null) {
+                    float progress = swayProgress(clock - tree.getLeafPhase(i, j));
+                    leaf.renderer().setRenderableAngle(ANGLE_OSCILLATION_INIT_VALUE +
+                            (ANGLE_OSCILLATION_FINAL_VALUE - ANGLE_OSCILLATION_INIT_VALUE) * progress);
+                    leaf.setDimensions(leafDimensions[Math.round(progress * WIND_WIDTH_STEPS)]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes how far a leaf is between the initial and the final values of its sway.
+     * @param time The time of the leaf, the clock minus its phase.
+     * @return A value between 0 and 1 that rises during one transition time and falls during the next.
+     */
+    private static float swayProgress(float time) {
+        float period = 2f * LEAVE_TRANSITION_TIME;
+        float cycle = time % period;
+        if (cycle < 0) {
+            cycle += period;
+        }
+        return cycle < LEAVE_TRANSITION_TIME ? cycle / LEAVE_TRANSITION_TIME :
+                2f - cycle / LEAVE_TRANSITION_TIME;
+    }
+}